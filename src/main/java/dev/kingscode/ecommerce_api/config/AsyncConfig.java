@@ -0,0 +1,41 @@
+package dev.kingscode.ecommerce_api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import dev.kingscode.ecommerce_api.service.async.BoundedAsyncExecutor;
+import dev.kingscode.ecommerce_api.service.async.ContextPropagatingTaskDecorator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * One bounded executor per {@code @Async} task family, see
+ * {@link BoundedAsyncExecutor}. Unqualified {@code @Async} methods, and Spring
+ * MVC async requests, run on the {@code default} family.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class AsyncConfig {
+    private final AsyncExecutorProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public TaskDecorator contextPropagatingTaskDecorator() {
+        return new ContextPropagatingTaskDecorator();
+    }
+
+    /**
+     * Replaces Boot's executor under its name; {@code taskExecutor} is the name
+     * unqualified {@code @Async} methods look up
+     */
+    @Bean({ "applicationTaskExecutor", "taskExecutor" })
+    public BoundedAsyncExecutor applicationTaskExecutor() {
+        return executor("default");
+    }
+
+    private BoundedAsyncExecutor executor(String family) {
+        return new BoundedAsyncExecutor(family, properties.family(family), contextPropagatingTaskDecorator(),
+                properties.getShutdownTimeout(), meterRegistry);
+    }
+}
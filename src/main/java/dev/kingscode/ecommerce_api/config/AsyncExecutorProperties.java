@@ -0,0 +1,71 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.async")
+public class AsyncExecutorProperties {
+
+    /** How long shutdown waits for admitted tasks to finish */
+    @NotNull
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    /** Executor per task family, by name; unlisted families use the defaults below */
+    @Valid
+    private Map<String, Family> executors = new HashMap<>();
+
+    public Family family(String name) {
+        return executors.getOrDefault(name, new Family());
+    }
+
+    @Getter
+    @Setter
+    public static class Family {
+        @NotNull
+        private ThreadType threads = ThreadType.PLATFORM;
+
+        /** Tasks running at once: pool size, or concurrent virtual threads */
+        @Positive
+        private int concurrency = 4;
+
+        /** Tasks allowed to wait for a slot before the rejection policy applies */
+        @PositiveOrZero
+        private int queueCapacity = 100;
+
+        @NotNull
+        private RejectionPolicy rejection = RejectionPolicy.CALLER_RUNS;
+
+        /** How long {@code wait} blocks the submitter before rejecting */
+        @NotNull
+        private Duration rejectionTimeout = Duration.ofSeconds(1);
+    }
+
+    public enum ThreadType {
+        PLATFORM, VIRTUAL
+    }
+
+    public enum RejectionPolicy {
+        /** The submitting thread runs the task itself */
+        CALLER_RUNS,
+        /** The submitter waits up to {@code rejection-timeout} for room, then fails */
+        WAIT,
+        /** The submitter fails immediately */
+        ABORT
+    }
+}
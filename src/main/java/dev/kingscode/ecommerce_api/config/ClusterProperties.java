@@ -0,0 +1,35 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.cluster")
+public class ClusterProperties {
+
+    /** Prefix of the lease, fencing counter and membership keys */
+    @NotBlank
+    private String keyPrefix = "cluster";
+
+    /**
+     * A leader that stops renewing loses its lease after this, and a crashed
+     * node drops out of the membership
+     */
+    @NotNull
+    private Duration leaseTtl = Duration.ofSeconds(30);
+
+    /** How often held leases and the membership entry are renewed; well below lease-ttl */
+    @NotNull
+    private Duration heartbeatInterval = Duration.ofSeconds(10);
+}
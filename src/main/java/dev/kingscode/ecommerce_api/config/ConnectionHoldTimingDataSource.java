@@ -0,0 +1,100 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long each borrowed connection is held before it goes back to the
+ * pool as {@code db.connection.hold}, tagged with the HTTP method and matched
+ * URI pattern of the request that held it. Connections used outside a request
+ * (schedulers, startup) are tagged {@code uri=none}.
+ */
+public class ConnectionHoldTimingDataSource extends DelegatingDataSource {
+    private static final String METRIC = "db.connection.hold";
+    private static final String NONE = "none";
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private volatile MeterRegistry meterRegistry;
+
+    public ConnectionHoldTimingDataSource(DataSource targetDataSource,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        super(targetDataSource);
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timed(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timed(super.getConnection(username, password));
+    }
+
+    private Connection timed(Connection connection) {
+        long borrowedAt = System.nanoTime();
+        AtomicBoolean released = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        record(System.nanoTime() - borrowedAt);
+                    }
+
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private void record(long heldNanos) {
+        MeterRegistry registry = meterRegistry;
+
+        if (registry == null) {
+            registry = meterRegistryProvider.getIfAvailable();
+            if (registry == null) {
+                // registry not created yet (e.g. Flyway at startup)
+                return;
+            }
+            meterRegistry = registry;
+        }
+
+        String uri = NONE;
+        String httpMethod = NONE;
+
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            // pattern is unset while security filters run, before the handler is resolved
+            Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+            uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            httpMethod = attributes.getRequest().getMethod();
+        }
+
+        Timer.builder(METRIC)
+                .description("Time a pooled JDBC connection is held per request endpoint")
+                .tag("uri", uri)
+                .tag("method", httpMethod)
+                .register(registry)
+                .record(heldNanos, TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -0,0 +1,31 @@
+package dev.kingscode.ecommerce_api.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@ConditionalOnProperty(name = "app.metrics.connection-hold.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceMetricsConfig {
+
+    /** Wraps the pool so connection hold time is recorded per endpoint */
+    @Bean
+    public static BeanPostProcessor connectionHoldTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionHoldTimingDataSource)) {
+                    return new ConnectionHoldTimingDataSource(dataSource, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+
+}
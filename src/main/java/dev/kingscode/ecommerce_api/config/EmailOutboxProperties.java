@@ -0,0 +1,28 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.mail.outbox")
+public class EmailOutboxProperties {
+
+    /** How often the relay looks for new outbox entries */
+    @NotNull
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /** Entries moved to the queue per transaction */
+    @Positive
+    private int batchSize = 200;
+}
@@ -0,0 +1,187 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import dev.kingscode.ecommerce_api.model.enums.EmailPriority;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.mail.queue")
+public class EmailQueueProperties {
+
+    /** Redis data structure backing the queue */
+    @NotNull
+    private Backend backend = Backend.LIST;
+
+    /**
+     * Format new messages are written in; both are always readable, so switch
+     * to binary only once every node runs a version that can read it
+     */
+    @NotNull
+    private Codec codec = Codec.BINARY;
+
+    /** Binary payloads larger than this are deflated */
+    @NotNull
+    private DataSize compressionThreshold = DataSize.ofKilobytes(1);
+
+    @NotBlank(message = "Email queue name is required")
+    private String name = "email-queue";
+
+    /** Key prefix of the dead-letter store for emails that exhausted their retries */
+    @NotBlank(message = "Email dead letter queue name is required")
+    private String deadLetter = "email-dead-letter";
+
+    /** Dead-lettered emails replayed or purged per Redis round trip */
+    @Positive
+    private int deadLetterBatchSize = 500;
+
+    @PositiveOrZero(message = "Max retries must not be negative")
+    private int maxRetries = 3;
+
+    /** Delay before the first retry; doubles on every further attempt */
+    @PositiveOrZero(message = "Retry delay must not be negative")
+    private int retryDelaySeconds = 60;
+
+    /** Upper bound for the exponential retry delay */
+    @NotNull
+    private Duration retryMaxDelay = Duration.ofMinutes(30);
+
+    /** How often retries that are due are moved from the delay set to the queue */
+    @NotNull
+    private Duration retryPromoteInterval = Duration.ofSeconds(1);
+
+    /** Most due retries moved in one Redis round trip */
+    @Positive
+    private int retryPromoteBatchSize = 500;
+
+    /** Emails rendered and sent in parallel on this node */
+    @Positive(message = "Email queue concurrency must be positive")
+    private int concurrency = 8;
+
+    /** Most messages one worker sends over a single SMTP session */
+    @Positive
+    private int sendBatchSize = 10;
+
+    /** Most messages popped in one Redis round trip */
+    @Positive(message = "Email queue batch size must be positive")
+    private int batchSize = 50;
+
+    /** Delay after the first empty poll; doubles while the queue stays empty */
+    @NotNull
+    private Duration idlePollMin = Duration.ofMillis(100);
+
+    /** Upper bound for the idle poll delay, and the pause after a failed poll */
+    @NotNull
+    private Duration idlePollMax = Duration.ofSeconds(2);
+
+    /** Claimed messages not acknowledged within this time are redelivered */
+    @NotNull
+    private Duration visibilityTimeout = Duration.ofMinutes(5);
+
+    /** How often expired in-flight messages are moved back to the queue */
+    @NotNull
+    private Duration reaperInterval = Duration.ofSeconds(30);
+
+    /** Consumer group shared by all nodes when backend is stream */
+    @NotBlank
+    private String streamGroup = "email-senders";
+
+    /**
+     * Enqueues are rejected while a lane's stream holds this many entries when
+     * backend is stream; queued entries are never trimmed
+     */
+    @Positive
+    private long streamMaxLength = 100_000;
+
+    /** How long shutdown waits for in-flight sends */
+    @NotNull
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Share of each claim per priority lane (see EmailType); capacity a lane
+     * leaves unused goes to the others, highest first
+     */
+    @NotEmpty
+    private Map<EmailPriority, @Positive Integer> priorityWeights = new EnumMap<>(
+            Map.of(EmailPriority.HIGH, 8, EmailPriority.NORMAL, 3, EmailPriority.LOW, 1));
+
+    @Valid
+    private Journal journal = new Journal();
+
+    @Valid
+    private Doorbell doorbell = new Doorbell();
+
+    /** Pub/sub notification that wakes idle consumers when messages arrive */
+    @Getter
+    @Setter
+    public static class Doorbell {
+        private boolean enabled = true;
+
+        /** Channel is {@code <name><channel-suffix>} */
+        @NotBlank
+        private String channelSuffix = ":doorbell";
+
+        /**
+         * Upper bound for the idle poll delay while the doorbell is enabled; only
+         * covers notifications lost during a resubscribe
+         */
+        @NotNull
+        private Duration fallbackPoll = Duration.ofSeconds(30);
+    }
+
+    /** Local fallback for enqueues while Redis is unreachable */
+    @Getter
+    @Setter
+    public static class Journal {
+        private boolean enabled = true;
+
+        @NotBlank
+        private String path = "data/email-queue.journal";
+
+        /** Mapped up front; enqueues fail once it is full */
+        @NotNull
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        /** Longest an append waits for the next group fsync */
+        @NotNull
+        private Duration flushInterval = Duration.ofMillis(5);
+
+        /** Appends not synced after this, e.g. on a stalled disk, fail so the caller keeps the email */
+        @NotNull
+        private Duration syncTimeout = Duration.ofSeconds(1);
+
+        /** How often the journal is drained back into Redis */
+        @NotNull
+        private Duration drainInterval = Duration.ofSeconds(1);
+    }
+
+    public enum Codec {
+        JSON,
+        /** Versioned binary, see EmailQueueMessageSerializer */
+        BINARY
+    }
+
+    public enum Backend {
+        /** Redis list with per-consumer processing lists */
+        LIST,
+        /** Redis Stream with a consumer group */
+        STREAM
+    }
+}
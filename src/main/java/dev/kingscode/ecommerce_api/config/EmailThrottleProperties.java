@@ -0,0 +1,41 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.mail.throttle")
+public class EmailThrottleProperties {
+
+    private boolean enabled = true;
+
+    /** Prefix of the per-recipient Redis keys */
+    @NotBlank
+    private String keyPrefix = "email-throttle";
+
+    /** At most one email per recipient and type within this window */
+    @NotNull
+    private Duration window = Duration.ofMinutes(1);
+
+    /** Per-type overrides of {@code window} */
+    @NotNull
+    private Map<EmailType, Duration> windows = new EnumMap<>(EmailType.class);
+
+    public Duration windowFor(EmailType type) {
+        return windows.getOrDefault(type, window);
+    }
+}
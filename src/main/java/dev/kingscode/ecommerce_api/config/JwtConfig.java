@@ -6,6 +6,7 @@ import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -25,4 +26,19 @@ public class JwtConfig {
     @Positive(message = "JWT access token expiration must be positive")
     private Long refreshTokenExpiration = 604800000L; // 7 days default
 
+    /**
+     * When enabled, authenticated requests rebuild the principal from the access
+     * token claims and only hit the database when the user's security version
+     * has moved on since the token was issued. Admin tokens always hit the
+     * database, bypassing the user cache.
+     */
+    private boolean statelessPrincipal = false;
+
+    /**
+     * Maximum number of already-verified access tokens kept in memory, keyed by
+     * a SHA-256 digest of the token. Zero disables the cache.
+     */
+    @PositiveOrZero(message = "JWT verified token cache size must not be negative")
+    private long verifiedTokenCacheSize = 50_000L;
+
 }
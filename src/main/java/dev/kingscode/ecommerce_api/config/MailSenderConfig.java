@@ -0,0 +1,44 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.util.Properties;
+
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.kingscode.ecommerce_api.service.email.PooledJavaMailSender;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces Boot's per-send {@code JavaMailSenderImpl} with one that reuses SMTP
+ * sessions, configured from the same {@code spring.mail.*} properties.
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailSenderConfig {
+
+    @Bean
+    public PooledJavaMailSender mailSender(MailProperties mailProperties, MailSessionPoolProperties poolProperties,
+            MeterRegistry meterRegistry) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(poolProperties, meterRegistry);
+
+        sender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            sender.setPort(mailProperties.getPort());
+        }
+        sender.setUsername(mailProperties.getUsername());
+        sender.setPassword(mailProperties.getPassword());
+        sender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            sender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
+        if (!mailProperties.getProperties().isEmpty()) {
+            Properties javaMailProperties = new Properties();
+            javaMailProperties.putAll(mailProperties.getProperties());
+            sender.setJavaMailProperties(javaMailProperties);
+        }
+
+        return sender;
+    }
+}
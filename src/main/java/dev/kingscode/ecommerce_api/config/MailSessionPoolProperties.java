@@ -0,0 +1,44 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.mail.pool")
+public class MailSessionPoolProperties {
+
+    /** Most SMTP sessions open at once; senders beyond this wait for a free one */
+    @Positive
+    private int maxSessions = 8;
+
+    /** How long a send waits for a free session before failing */
+    @NotNull
+    private Duration borrowTimeout = Duration.ofSeconds(30);
+
+    /** Idle sessions are closed after this, before the server drops them */
+    @NotNull
+    private Duration maxIdle = Duration.ofSeconds(30);
+
+    /** Sessions are recycled after this long regardless of use */
+    @NotNull
+    private Duration maxAge = Duration.ofMinutes(10);
+
+    /** Sessions are recycled after this many messages, many relays cap it */
+    @Positive
+    private int maxMessagesPerSession = 100;
+
+    /** A session idle for longer than this is checked with NOOP before reuse */
+    @NotNull
+    private Duration validateAfterIdle = Duration.ofSeconds(5);
+}
@@ -0,0 +1,81 @@
+package dev.kingscode.ecommerce_api.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import dev.kingscode.ecommerce_api.security.password.PasswordHashAlgorithm;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password-hashing")
+public class PasswordHashingConfig {
+
+    /** Hashing threads; 0 means one per available core */
+    @PositiveOrZero(message = "Password hashing threads must not be negative")
+    private int threads = 0;
+
+    /** Hash requests allowed to wait for a thread before new ones are rejected */
+    @Positive(message = "Password hashing queue capacity must be positive")
+    private int queueCapacity = 64;
+
+    /** Sent as Retry-After when the queue is full */
+    private Duration retryAfter = Duration.ofSeconds(2);
+
+    /** Algorithm for new hashes; hashes of the other one are still accepted and upgraded on login */
+    @NotNull
+    private PasswordHashAlgorithm algorithm = PasswordHashAlgorithm.BCRYPT;
+
+    /** Hash time the startup calibration aims for on this host */
+    @NotNull
+    private Duration targetLatency = Duration.ofMillis(250);
+
+    @Valid
+    private Bcrypt bcrypt = new Bcrypt();
+
+    @Valid
+    private Argon2 argon2 = new Argon2();
+
+    @Getter
+    @Setter
+    public static class Bcrypt {
+        @Min(value = 4, message = "BCrypt strength must be at least 4")
+        private int minStrength = 10;
+
+        @Max(value = 31, message = "BCrypt strength must be at most 31")
+        private int maxStrength = 14;
+    }
+
+    @Getter
+    @Setter
+    public static class Argon2 {
+        @Positive
+        private int memoryKib = 19_456;
+
+        @Positive
+        private int parallelism = 1;
+
+        @Positive
+        private int minIterations = 2;
+
+        @Positive
+        private int maxIterations = 10;
+    }
+
+    public int resolveThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
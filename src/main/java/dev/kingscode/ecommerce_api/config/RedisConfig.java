@@ -1,11 +1,23 @@
 package dev.kingscode.ecommerce_api.config;
 
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.service.email.codec.EmailQueueMessageSerializer;
+import dev.kingscode.ecommerce_api.service.email.journal.EmailQueueJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
 public class RedisConfig {
 
@@ -23,4 +35,53 @@ public class RedisConfig {
 
         return template;
     }
+
+    /**
+     * Template for binary email queue payloads: string keys, raw byte values.
+     * Script arguments must be passed as {@code byte[]} as well.
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> emailQueueRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+
+        template.afterPropertiesSet();
+
+        return template;
+    }
+
+    /** Pluggable payload format of the email queue, see {@code app.mail.queue.codec} */
+    @Bean
+    public RedisSerializer<EmailQueueMessage> emailQueueMessageSerializer(ObjectMapper objectMapper,
+            EmailQueueProperties properties) {
+        return new EmailQueueMessageSerializer(objectMapper, properties.getCodec(),
+                (int) properties.getCompressionThreshold().toBytes());
+    }
+
+    /** Fallback for enqueues while Redis is unreachable, see {@code app.mail.queue.journal} */
+    @Bean
+    @ConditionalOnProperty(name = "app.mail.queue.journal.enabled", havingValue = "true", matchIfMissing = true)
+    public EmailQueueJournal emailQueueJournal(EmailQueueProperties properties, MeterRegistry meterRegistry) {
+        EmailQueueProperties.Journal journal = properties.getJournal();
+
+        return new EmailQueueJournal(Path.of(journal.getPath()), (int) journal.getMaxSize().toBytes(),
+                journal.getFlushInterval(), journal.getSyncTimeout(), meterRegistry);
+    }
+
+    /**
+     * Shared pub/sub container. Components subscribe to their own channels on
+     * it so every node keeps a single subscription connection.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+
+        return container;
+    }
 }
@@ -7,7 +7,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -16,6 +15,9 @@ import dev.kingscode.ecommerce_api.model.enums.UserRole;
 import dev.kingscode.ecommerce_api.security.JwtAccessDeniedHandler;
 import dev.kingscode.ecommerce_api.security.JwtAuthenticationEntryPoint;
 import dev.kingscode.ecommerce_api.security.filter.JwtAuthFilter;
+import dev.kingscode.ecommerce_api.security.password.OffloadingPasswordEncoder;
+import dev.kingscode.ecommerce_api.security.password.PasswordHashCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.security.SecurityScheme;
@@ -43,7 +45,8 @@ public class SecurityConfig {
                                                                 "/",
                                                                 "/swagger-ui.html")
                                                 .permitAll()
-                                                .requestMatchers("/api/v1/admin/**")
+                                                .requestMatchers("/actuator/health").permitAll()
+                                                .requestMatchers("/api/v1/admin/**", "/actuator/**")
                                                 .hasAuthority(UserRole.ADMIN.toString())
                                                 .anyRequest()
                                                 .authenticated())
@@ -58,8 +61,12 @@ public class SecurityConfig {
         }
 
         @Bean
-        public PasswordEncoder passwordEncoder() {
-                return new BCryptPasswordEncoder(12);
+        public PasswordEncoder passwordEncoder(PasswordHashingConfig hashingConfig, MeterRegistry meterRegistry) {
+                PasswordEncoder calibrated = new PasswordHashCalibrator(hashingConfig).calibratedEncoder();
+
+                // hashing runs on its own bounded pool instead of request threads
+                return new OffloadingPasswordEncoder(calibrated, hashingConfig.resolveThreads(),
+                                hashingConfig.getQueueCapacity(), hashingConfig.getRetryAfter(), meterRegistry);
         }
 
         @Bean
@@ -1,17 +1,24 @@
 package dev.kingscode.ecommerce_api.controller;
 
+import java.time.Instant;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import dev.kingscode.ecommerce_api.dto.email.DeadLetterBulkResponseDto;
+import dev.kingscode.ecommerce_api.dto.email.DeadLetterEmail;
+import dev.kingscode.ecommerce_api.dto.email.DeadLetterFilter;
 import dev.kingscode.ecommerce_api.dto.user.response.UserResponseDto;
 import dev.kingscode.ecommerce_api.service.UserService;
+import dev.kingscode.ecommerce_api.service.email.EmailDeadLetterService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -23,6 +30,7 @@ import lombok.RequiredArgsConstructor;
 @SecurityRequirement(name = "bearerAuth")
 public class AdminController {
     private final UserService userService;
+    private final EmailDeadLetterService emailDeadLetterService;
 
     @GetMapping("/users")
     public Page<UserResponseDto> getUsers(@RequestParam(defaultValue = "0") @Min(0) int page,
@@ -44,4 +52,32 @@ public class AdminController {
         userService.deleteUser(userId);
     }
 
+    @GetMapping("/emails/dead-letters")
+    public Page<DeadLetterEmail> getDeadLetters(@RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(required = false) String templateName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        return emailDeadLetterService.getDeadLetters(new DeadLetterFilter(templateName, from, to), page, size);
+    }
+
+    @PostMapping("/emails/dead-letters/replay")
+    public DeadLetterBulkResponseDto replayDeadLetters(@RequestParam(required = false) String templateName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        long replayed = emailDeadLetterService.replay(new DeadLetterFilter(templateName, from, to));
+        return DeadLetterBulkResponseDto.builder().count(replayed).build();
+    }
+
+    @DeleteMapping("/emails/dead-letters")
+    public DeadLetterBulkResponseDto purgeDeadLetters(@RequestParam(required = false) String templateName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        long purged = emailDeadLetterService.purge(new DeadLetterFilter(templateName, from, to));
+        return DeadLetterBulkResponseDto.builder().count(purged).build();
+    }
+
 }
@@ -33,6 +33,11 @@ public class UserController {
 
     @GetMapping("/me")
     public UserResponseDto getAuthenticatedUser(@AuthenticationPrincipal User user) {
+        // principals rebuilt from token claims only carry identity, not the profile
+        if (user.isTokenPrincipal()) {
+            return userService.getUserById(user.getId());
+        }
+
         return userMapper.toResponseDto(user);
     }
 
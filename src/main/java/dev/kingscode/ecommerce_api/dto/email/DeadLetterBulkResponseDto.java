@@ -0,0 +1,11 @@
+package dev.kingscode.ecommerce_api.dto.email;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class DeadLetterBulkResponseDto {
+    /** Number of dead-lettered emails replayed or purged */
+    long count;
+}
@@ -0,0 +1,20 @@
+package dev.kingscode.ecommerce_api.dto.email;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.Value;
+
+/** An email that exhausted its retries, kept for inspection and replay */
+@Value
+@Builder(toBuilder = true)
+public class DeadLetterEmail {
+    /** Same as the id of the queued message */
+    String id;
+    EmailQueueMessage message;
+    /** Error of the last send attempt */
+    String reason;
+    int attempts;
+    Instant queuedAt;
+    Instant failedAt;
+}
@@ -0,0 +1,10 @@
+package dev.kingscode.ecommerce_api.dto.email;
+
+import java.time.Instant;
+
+/**
+ * Selects dead-lettered emails by template and failure time; {@code null}
+ * fields match everything.
+ */
+public record DeadLetterFilter(String templateName, Instant failedFrom, Instant failedTo) {
+}
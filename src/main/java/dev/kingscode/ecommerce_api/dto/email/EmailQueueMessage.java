@@ -11,6 +11,8 @@ import lombok.Value;
 @Value
 @Builder(toBuilder = true)
 public class EmailQueueMessage implements Serializable {
+        /** Assigned on enqueue and kept across retries */
+        String id;
         String to;
         String subject;
         EmailType emailType;
@@ -0,0 +1,8 @@
+package dev.kingscode.ecommerce_api.dto.email;
+
+/**
+ * A message claimed from the email queue. {@code receipt} identifies the
+ * in-flight entry and must be handed back to acknowledge or requeue it.
+ */
+public record QueuedEmail(String receipt, EmailQueueMessage message) {
+}
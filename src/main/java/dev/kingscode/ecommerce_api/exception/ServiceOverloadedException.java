@@ -0,0 +1,21 @@
+package dev.kingscode.ecommerce_api.exception;
+
+import java.time.Duration;
+
+import dev.kingscode.ecommerce_api.dto.ApiException;
+import lombok.Getter;
+
+/**
+ * Thrown when a bounded resource refuses new work. Mapped to 503 with a
+ * Retry-After header so well-behaved clients back off.
+ */
+@Getter
+public class ServiceOverloadedException extends ApiException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message, ErrorCode.SERVICE_UNAVAILABLE);
+        this.retryAfter = retryAfter;
+    }
+
+}
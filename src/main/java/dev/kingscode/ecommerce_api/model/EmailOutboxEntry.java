@@ -0,0 +1,41 @@
+package dev.kingscode.ecommerce_api.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * An email waiting to be relayed to the Redis queue, written in the same
+ * transaction as the user change that requested it.
+ */
+@Entity
+@Table(name = "email_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Builder
+public class EmailOutboxEntry {
+        @Id
+        @Column(nullable = false, updatable = false)
+        private UUID id;
+
+        /** The queue message as JSON */
+        @JdbcTypeCode(SqlTypes.JSON)
+        @Column(nullable = false, updatable = false)
+        private String payload;
+
+        @Column(name = "created_at", nullable = false, updatable = false)
+        private Instant createdAt;
+}
@@ -0,0 +1,30 @@
+package dev.kingscode.ecommerce_api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Highest lease fencing token that has written on behalf of a singleton job,
+ * see {@code ClusterCoordinator}.
+ */
+@Entity
+@Table(name = "job_fences")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@Builder
+public class JobFence {
+        @Id
+        @Column(nullable = false, updatable = false, length = 100)
+        private String job;
+
+        @Column(nullable = false)
+        private long token;
+}
@@ -22,6 +22,7 @@ import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -42,7 +43,7 @@ import lombok.ToString;
 @ToString(onlyExplicitlyIncluded = true)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Builder(toBuilder = true)
-@SQLDelete(sql = "UPDATE users SET deleted_at = NOW() WHERE id = ?")
+@SQLDelete(sql = "UPDATE users SET deleted_at = NOW(), security_version = security_version + 1 WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 public class User implements UserDetails {
         @Id
@@ -87,6 +88,14 @@ public class User implements UserDetails {
         @Column(name = "token_expiration")
         private Instant tokenExpiration;
 
+        /**
+         * Bumped whenever previously issued tokens must stop being trusted
+         * (password change, deletion). Embedded in access tokens as "sv".
+         */
+        @Column(name = "security_version", nullable = false)
+        @Builder.Default
+        private Integer securityVersion = 0;
+
         @Column(name = "created_at", nullable = false, updatable = false)
         private Instant createdAt;
 
@@ -96,6 +105,11 @@ public class User implements UserDetails {
         @Column(name = "deleted_at")
         private Instant deletedAt;
 
+        /** True when rebuilt from JWT claims instead of loaded from the database */
+        @Transient
+        @Builder.Default
+        private boolean tokenPrincipal = false;
+
         @PrePersist
         protected void onCreate() {
                 Instant now = Instant.now();
@@ -0,0 +1,31 @@
+package dev.kingscode.ecommerce_api.model.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Email queue lanes, highest first. Each has its own Redis keys. */
+@Getter
+@RequiredArgsConstructor
+public enum EmailPriority {
+    HIGH('h', ":high"),
+    /** Uses the unsuffixed keys, which held every email before lanes existed */
+    NORMAL('n', ""),
+    LOW('l', ":low");
+
+    /** Prefix of the queue receipts claimed from this lane */
+    private final char code;
+    private final String keySuffix;
+
+    public String key(String base) {
+        return base + keySuffix;
+    }
+
+    public static EmailPriority fromCode(char code) {
+        for (EmailPriority priority : values()) {
+            if (priority.code == code) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("Unknown email priority code " + code);
+    }
+}
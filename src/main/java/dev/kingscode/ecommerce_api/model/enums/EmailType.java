@@ -6,12 +6,13 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public enum EmailType {
-    USER_REGISTRATION("Verify Your Account", "user-verification"),
-    PASSWORD_RESET("Reset Your Password", "password-reset"),
-    ACCOUNT_LOCKED("Account Security Alert", "account-locked"),
-    WELCOME_EMAIL("Welcome to Our Platform!", "welcome-email");
+    USER_REGISTRATION("Verify Your Account", "user-verification", EmailPriority.NORMAL),
+    PASSWORD_RESET("Reset Your Password", "password-reset", EmailPriority.HIGH), // OTP expires in 15 minutes
+    ACCOUNT_LOCKED("Account Security Alert", "account-locked", EmailPriority.HIGH),
+    WELCOME_EMAIL("Welcome to Our Platform!", "welcome-email", EmailPriority.LOW);
 
     private final String defaultSubject;
     private final String templateName;
+    private final EmailPriority priority;
 
 }
@@ -0,0 +1,40 @@
+package dev.kingscode.ecommerce_api.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import dev.kingscode.ecommerce_api.model.EmailOutboxEntry;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntry, UUID> {
+
+    /** Plain insert; {@code save} would first look the generated id up */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO email_outbox (id, payload, created_at)
+            VALUES (:id, CAST(:payload AS JSONB), :createdAt)
+            """, nativeQuery = true)
+    void insert(@Param("id") UUID id, @Param("payload") String payload, @Param("createdAt") Instant createdAt);
+
+    /**
+     * Locks the oldest entries for the current transaction. Rows locked by
+     * another node's relay are skipped rather than waited for.
+     */
+    @Query(value = """
+            SELECT * FROM email_outbox
+            ORDER BY created_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EmailOutboxEntry> lockOldest(@Param("limit") int limit);
+
+}
@@ -0,0 +1,30 @@
+package dev.kingscode.ecommerce_api.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import dev.kingscode.ecommerce_api.model.JobFence;
+
+@Repository
+public interface JobFenceRepository extends JpaRepository<JobFence, String> {
+
+    /**
+     * Records {@code token} as the job's fence unless a newer leader already
+     * wrote a higher one. Must run in the transaction it guards: the row stays
+     * locked until commit, so a newer leader can't interleave.
+     *
+     * @return 1 if the token is current, 0 if it is stale
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO job_fences (job, token)
+            VALUES (:job, :token)
+            ON CONFLICT (job) DO UPDATE SET token = EXCLUDED.token
+            WHERE job_fences.token <= EXCLUDED.token
+            """, nativeQuery = true)
+    int advance(@Param("job") String job, @Param("token") long token);
+
+}
@@ -1,10 +1,15 @@
 package dev.kingscode.ecommerce_api.repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import dev.kingscode.ecommerce_api.model.User;
 
@@ -20,4 +25,65 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByPwdResetToken(String pwdResetToken);
 
-}
\ No newline at end of file
+    /**
+     * Inserts a new user in a single statement. An active user with the same
+     * email is detected by the {@code uk_users_email_active} partial index rather
+     * than a prior lookup.
+     *
+     * @return 1 if inserted, 0 if the email is already taken
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO users (id, email, first_name, last_name, password, is_active, email_verified, role,
+                    verification_token, token_expiration, security_version, created_at, updated_at)
+            VALUES (:#{#user.id}, :#{#user.email}, CAST(:#{#user.firstName} AS VARCHAR),
+                    CAST(:#{#user.lastName} AS VARCHAR), :#{#user.password}, :#{#user.active},
+                    :#{#user.emailVerified}, :#{#user.role.name()}, :#{#user.verificationToken},
+                    :#{#user.tokenExpiration}, :#{#user.securityVersion}, :#{#user.createdAt}, :#{#user.updatedAt})
+            ON CONFLICT (email) WHERE deleted_at IS NULL DO NOTHING
+            """, nativeQuery = true)
+    int insertIfEmailAvailable(@Param("user") User user);
+
+    /*
+     * The updates below only touch their own columns. Their callers hold a
+     * cached, possibly stale, user; saving it whole would write its role, status
+     * and security version back over changes made since.
+     */
+
+    /** @return 1 if updated, 0 if the user no longer exists */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE users SET password_reset_token = :token, token_expiration = :expiration, updated_at = NOW()
+            WHERE id = :id AND deleted_at IS NULL
+            """, nativeQuery = true)
+    int updatePasswordResetToken(@Param("id") UUID id, @Param("token") String token,
+            @Param("expiration") Instant expiration);
+
+    /** @return 1 if updated, 0 if the user no longer exists */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE users SET verification_token = :token, token_expiration = :expiration, updated_at = NOW()
+            WHERE id = :id AND deleted_at IS NULL
+            """, nativeQuery = true)
+    int updateVerificationToken(@Param("id") UUID id, @Param("token") String token,
+            @Param("expiration") Instant expiration);
+
+    /**
+     * Replaces the hash only if it is still {@code currentHash}, so a rehash
+     * never undoes a password changed in the meantime.
+     *
+     * @return 1 if updated, 0 if the password changed or the user is gone
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE users SET password = :newHash, updated_at = NOW()
+            WHERE id = :id AND password = :currentHash AND deleted_at IS NULL
+            """, nativeQuery = true)
+    int rehashPassword(@Param("id") UUID id, @Param("currentHash") String currentHash,
+            @Param("newHash") String newHash);
+
+}
@@ -0,0 +1,36 @@
+package dev.kingscode.ecommerce_api.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/**
+ * Immutable view of a token whose signature has already been verified.
+ * Produced once per request by {@code JWTService.verify} so callers never
+ * have to decode the same token twice.
+ */
+@Value
+@Builder
+public class JwtClaims {
+    String subject;
+    UUID userId;
+    Integer securityVersion;
+    Instant issuedAt;
+    Instant expiresAt;
+
+    @Singular
+    List<String> roles;
+
+    /** Whether the token carries enough identity to skip the user lookup */
+    public boolean hasPrincipalClaims() {
+        return userId != null && securityVersion != null && !roles.isEmpty();
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(Instant.now());
+    }
+}
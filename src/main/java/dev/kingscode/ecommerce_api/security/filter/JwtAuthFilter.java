@@ -7,12 +7,20 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
+import dev.kingscode.ecommerce_api.config.JwtConfig;
+import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.UserRole;
+import dev.kingscode.ecommerce_api.repository.UserRepository;
+import dev.kingscode.ecommerce_api.security.JwtClaims;
 import dev.kingscode.ecommerce_api.service.JWTService;
+import dev.kingscode.ecommerce_api.service.UserSecurityVersionListener;
+import dev.kingscode.ecommerce_api.service.UserSecurityVersionService;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import io.micrometer.common.lang.NonNull;
@@ -28,14 +36,23 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JWTService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserRepository userRepo;
+    private final UserSecurityVersionService securityVersionService;
+    private final JwtConfig jwtConfig;
     private final HandlerExceptionResolver resolver;
 
     public JwtAuthFilter(
             JWTService jwtService,
             UserDetailsService userDetailsService,
+            UserRepository userRepo,
+            UserSecurityVersionService securityVersionService,
+            JwtConfig jwtConfig,
             @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.userRepo = userRepo;
+        this.securityVersionService = securityVersionService;
+        this.jwtConfig = jwtConfig;
         this.resolver = resolver;
     }
 
@@ -54,13 +71,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         try {
             final String token = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(token);
+            // verify signature and expiry once, then work off the parsed claims
+            final JwtClaims claims = jwtService.verify(token);
+            final String userEmail = claims.getSubject();
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = resolvePrincipal(claims);
 
                 // validate token
-                if (jwtService.isTokenValid(token, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
                             null, userDetails.getAuthorities());
 
@@ -82,4 +101,36 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * In stateless mode the principal is rebuilt from the token as long as the
+     * user's security version hasn't moved on; otherwise the user is loaded and
+     * the version check happens in {@link JWTService#isTokenValid}.
+     * <p>
+     * Admin tokens are always checked against the users table, bypassing the
+     * user cache, so a demotion or deactivation takes effect on the next
+     * request. Other tokens see such database-side changes once
+     * {@link UserSecurityVersionListener} relays the version bump.
+     */
+    private UserDetails resolvePrincipal(JwtClaims claims) {
+        if (claims.getRoles().contains(UserRole.ADMIN.name())) {
+            return userRepo.findByEmail(claims.getSubject()).orElseThrow(
+                    () -> new UsernameNotFoundException("User not found with email " + claims.getSubject()));
+        }
+
+        if (jwtConfig.isStatelessPrincipal() && claims.hasPrincipalClaims()
+                && securityVersionService.isCurrent(claims.getUserId(), claims.getSecurityVersion())) {
+
+            return User.builder()
+                    .id(claims.getUserId())
+                    .email(claims.getSubject())
+                    .role(UserRole.valueOf(claims.getRoles().get(0)))
+                    .securityVersion(claims.getSecurityVersion())
+                    .emailVerified(true)
+                    .tokenPrincipal(true)
+                    .build();
+        }
+
+        return this.userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+
 }
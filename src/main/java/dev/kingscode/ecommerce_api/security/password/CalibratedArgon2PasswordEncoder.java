@@ -0,0 +1,47 @@
+package dev.kingscode.ecommerce_api.security.password;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+import lombok.Getter;
+
+/**
+ * Argon2id encoder whose {@link #upgradeEncoding(String)} asks for a rehash
+ * only when the stored memory or iteration cost is below the calibrated one,
+ * so nodes of a mixed cluster don't rewrite each other's hashes. Parallelism
+ * doesn't change the cost of an offline attack, so it never triggers one.
+ */
+@Getter
+public class CalibratedArgon2PasswordEncoder extends Argon2PasswordEncoder {
+    private static final Pattern PARAMS = Pattern.compile("\\$m=(\\d+),t=(\\d+),p=(\\d+)\\$");
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+
+    private final int memoryKib;
+    private final int iterations;
+    private final int parallelism;
+
+    public CalibratedArgon2PasswordEncoder(int memoryKib, int iterations, int parallelism) {
+        super(SALT_LENGTH, HASH_LENGTH, parallelism, memoryKib, iterations);
+        this.memoryKib = memoryKib;
+        this.iterations = iterations;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        Matcher matcher = PARAMS.matcher(encodedPassword);
+
+        return !matcher.find()
+                || Integer.parseInt(matcher.group(1)) < memoryKib
+                || Integer.parseInt(matcher.group(2)) < iterations;
+    }
+
+}
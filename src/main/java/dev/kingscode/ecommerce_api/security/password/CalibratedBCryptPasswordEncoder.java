@@ -0,0 +1,38 @@
+package dev.kingscode.ecommerce_api.security.password;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import lombok.Getter;
+
+/**
+ * BCrypt encoder whose {@link #upgradeEncoding(String)} asks for a rehash only
+ * when the stored cost is below the calibrated one. Each node calibrates on its
+ * own hardware, so rehashing on any difference would make nodes of a mixed
+ * cluster rewrite the same hash back and forth on every login.
+ */
+@Getter
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Pattern COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+
+        Matcher matcher = COST.matcher(encodedPassword);
+
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+}
@@ -0,0 +1,15 @@
+package dev.kingscode.ecommerce_api.security.password;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Hash algorithms understood by the password encoder, keyed by their stored prefix */
+@Getter
+@RequiredArgsConstructor
+public enum PasswordHashAlgorithm {
+    BCRYPT("bcrypt"),
+    ARGON2("argon2");
+
+    /** Written as {@code {id}} in front of every hash */
+    private final String id;
+}
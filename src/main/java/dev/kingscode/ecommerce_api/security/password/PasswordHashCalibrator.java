@@ -0,0 +1,110 @@
+package dev.kingscode.ecommerce_api.security.password;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import dev.kingscode.ecommerce_api.config.PasswordHashingConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the work factor for new hashes by timing the configured algorithm on
+ * this host: the highest cost whose hash still completes within
+ * {@code target-latency}, never below the configured minimum.
+ * <p>
+ * The resulting encoder writes {@code {bcrypt}}/{@code {argon2}} prefixed
+ * hashes, accepts both algorithms (and legacy unprefixed BCrypt hashes) for
+ * matching, and reports any hash with another algorithm or cost as needing an
+ * upgrade.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class PasswordHashCalibrator {
+    private static final String SAMPLE_PASSWORD = "calibration-Passw0rd!";
+    private static final int SAMPLES = 3;
+
+    private final PasswordHashingConfig config;
+
+    public PasswordEncoder calibratedEncoder() {
+        PasswordHashingConfig.Bcrypt bcrypt = config.getBcrypt();
+        PasswordHashingConfig.Argon2 argon2 = config.getArgon2();
+        PasswordHashAlgorithm algorithm = config.getAlgorithm();
+
+        // the algorithm not used for new hashes only has to verify, its cost is read from the hash
+        PasswordEncoder bcryptEncoder = algorithm == PasswordHashAlgorithm.BCRYPT
+                ? new CalibratedBCryptPasswordEncoder(calibrate("bcrypt strength", bcrypt.getMinStrength(),
+                        bcrypt.getMaxStrength(), CalibratedBCryptPasswordEncoder::new))
+                : new CalibratedBCryptPasswordEncoder(bcrypt.getMinStrength());
+
+        PasswordEncoder argon2Encoder = algorithm == PasswordHashAlgorithm.ARGON2
+                ? argon2Encoder(calibrate("argon2 iterations", argon2.getMinIterations(),
+                        argon2.getMaxIterations(), this::argon2Encoder))
+                : argon2Encoder(argon2.getMinIterations());
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(PasswordHashAlgorithm.BCRYPT.getId(), bcryptEncoder);
+        encoders.put(PasswordHashAlgorithm.ARGON2.getId(), argon2Encoder);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm.getId(), encoders);
+
+        // hashes stored before prefixes were introduced are all bcrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcryptEncoder);
+
+        return encoder;
+    }
+
+    /**
+     * Walks the cost up from {@code min} and keeps the last one whose median
+     * hash time stayed within the target.
+     */
+    private int calibrate(String parameter, int min, int max, IntFunction<PasswordEncoder> encoderForCost) {
+        Duration target = config.getTargetLatency();
+        int chosen = min;
+        Duration chosenLatency = medianHashTime(encoderForCost.apply(min));
+
+        // the minimum is kept even when it is over target, never go weaker
+        while (chosen < max && chosenLatency.compareTo(target) < 0) {
+            Duration next = medianHashTime(encoderForCost.apply(chosen + 1));
+
+            if (next.compareTo(target) > 0) {
+                break;
+            }
+
+            chosen++;
+            chosenLatency = next;
+        }
+
+        log.info("Calibrated {} to {} ({} ms per hash, target {} ms)", parameter, chosen,
+                chosenLatency.toMillis(), target.toMillis());
+
+        return chosen;
+    }
+
+    private Duration medianHashTime(PasswordEncoder encoder) {
+        // first hash warms up the code path and is not counted
+        encoder.encode(SAMPLE_PASSWORD);
+
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        return Duration.ofNanos(samples[SAMPLES / 2]);
+    }
+
+    private PasswordEncoder argon2Encoder(int iterations) {
+        PasswordHashingConfig.Argon2 argon2 = config.getArgon2();
+
+        return new CalibratedArgon2PasswordEncoder(argon2.getMemoryKib(), iterations, argon2.getParallelism());
+    }
+
+}
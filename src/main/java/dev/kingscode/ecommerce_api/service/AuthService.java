@@ -3,14 +3,14 @@ package dev.kingscode.ecommerce_api.service;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import dev.kingscode.ecommerce_api.dto.user.request.CreateUserRequestDto;
 import dev.kingscode.ecommerce_api.dto.user.request.LoginRequestDto;
@@ -21,10 +21,16 @@ import dev.kingscode.ecommerce_api.exception.AuthenticationException;
 import dev.kingscode.ecommerce_api.exception.AuthorizationException;
 import dev.kingscode.ecommerce_api.exception.EmailNotVerifiedException;
 import dev.kingscode.ecommerce_api.exception.ErrorCode;
+import dev.kingscode.ecommerce_api.exception.ResourceNotFoundException;
+import dev.kingscode.ecommerce_api.exception.ServiceOverloadedException;
 import dev.kingscode.ecommerce_api.mapper.UserMapper;
 import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
 import dev.kingscode.ecommerce_api.repository.UserRepository;
-import dev.kingscode.ecommerce_api.service.email.VerificationEmailService;
+import dev.kingscode.ecommerce_api.security.JwtClaims;
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
+import dev.kingscode.ecommerce_api.service.email.EmailThrottleService;
+import dev.kingscode.ecommerce_api.service.email.event.PasswordResetEmailEvent;
 import dev.kingscode.ecommerce_api.util.TokenGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,37 +38,33 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class AuthService {
-    private final AuthenticationManager authenticationManager;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService passwordUpgrader;
     private final JWTService jwtService;
     private final UserService userService;
     private final UserMapper userMapper;
-    private final VerificationEmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     private final TokenGenerator tokenGenerator;
     private final UserRepository userRepo;
+    private final UserDetailsCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailThrottleService emailThrottleService;
 
     /** Register a new user */
     public UserResponseDto signup(CreateUserRequestDto requestDto, Boolean isAdmin) {
-        User user = userService.createUser(requestDto, isAdmin);
-
         String verificationToken = tokenGenerator.generateToken();
         Instant tokenExpiration = Instant.now().plus(24, ChronoUnit.HOURS);
 
-        User updatedUser = user.toBuilder().verificationToken(verificationToken).tokenExpiration(tokenExpiration)
-                .build();
-
-        // Send verification email
-        emailService.sendUserVerificationEmail(requestDto.getEmail(), requestDto.getFirstName(),
-                verificationToken, tokenExpiration);
-
-        userRepo.save(updatedUser);
+        // also writes the verification email
+        User user = userService.createUser(requestDto, isAdmin, verificationToken, tokenExpiration);
 
         return userMapper.toResponseDto(user);
     }
 
     /**
-     * Authenticates user and returns generated JWT and RefreshToken
+     * Authenticates user and returns generated JWT and RefreshToken. The user row
+     * is loaded once and the same instance is checked and used for the tokens.
      * 
      * @return
      */
@@ -75,11 +77,8 @@ public class AuthService {
             if (!user.isVerified()) {
                 log.warn("Login attempt with unverified email: {}", loginRequest.getEmail());
 
-                // refresh token if expired
-                user = userService.refreshVerificationTokenIfExpired(user);
-
-                emailService.sendUserVerificationEmail(user.getEmail(), user.getFirstName(),
-                        user.getVerificationToken(), user.getTokenExpiration());
+                // refresh token if expired and resend it
+                user = userService.requestVerificationEmail(user);
 
                 throw new EmailNotVerifiedException(
                         "Please verify your email address to continue",
@@ -87,16 +86,23 @@ public class AuthService {
                         user.getEmail());
             }
 
+            if (!user.isEnabled()) {
+                throw new DisabledException("User account is disabled");
+            }
+
             // Authenticate user credentials
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+            if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
 
-            // load user details
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            // Rehash with the current algorithm and cost while the raw password is at hand
+            if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                user = (User) passwordUpgrader.updatePassword(user, passwordEncoder.encode(loginRequest.getPassword()));
+            }
 
             // Generate JWT access and refresh token
-            String accessToken = jwtService.generateToken(userDetails);
-            String refreshToken = jwtService.generateRefreshToken(userDetails);
+            String accessToken = jwtService.generateToken(user);
+            String refreshToken = jwtService.generateRefreshToken(user);
 
             return LoginResponseDto.builder().accessToken(accessToken).tokenType("Bearer").refreshToken(refreshToken)
                     .fullAuthenticated(true)
@@ -110,7 +116,7 @@ public class AuthService {
         } catch (UsernameNotFoundException e) {
             log.warn("User not found for email: {}", loginRequest.getEmail());
             throw new AuthenticationException("User not found");
-        } catch (EmailNotVerifiedException e) {
+        } catch (EmailNotVerifiedException | ServiceOverloadedException e) {
             throw e;
         } catch (Exception e) {
             log.error("Authentication error: {}", e.getMessage(), e);
@@ -118,40 +124,58 @@ public class AuthService {
         }
     }
 
-    /** Send password reset token to users email */
+    /**
+     * Send password reset token to users email. Repeated requests within the
+     * throttle window are dropped so the code already sent stays valid.
+     */
     public void sendPasswordResetTokenEmail(String email) {
         User user = userService.findByEmail(email);
 
+        if (!emailThrottleService.tryAcquire(user.getEmail(), EmailType.PASSWORD_RESET)) {
+            return;
+        }
+
         Instant now = Instant.now();
 
         String newOtp = tokenGenerator.generateDigitOtp();
         Instant tokenExpiration = now.plus(15, ChronoUnit.MINUTES);
 
-        User updatedUser = user.toBuilder().pwdResetToken(newOtp).tokenExpiration(tokenExpiration).build();
-
-        userRepo.save(updatedUser);
-
-        emailService.sendPasswordResetEmail(email, updatedUser.getFirstName(), newOtp, tokenExpiration);
+        // the token and its email are stored together; only the token columns are
+        // written, the cached user may be stale
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (userRepo.updatePasswordResetToken(user.getId(), newOtp, tokenExpiration) == 0) {
+                    throw new ResourceNotFoundException("User", "email", email);
+                }
+
+                eventPublisher.publishEvent(new PasswordResetEmailEvent(email, user.getFirstName(), newOtp,
+                        tokenExpiration));
+            });
+        } catch (RuntimeException e) {
+            emailThrottleService.release(user.getEmail(), EmailType.PASSWORD_RESET);
+            throw e;
+        }
 
+        userCache.evict(user);
     }
 
     public RefreshTokenResponseDto refreshAccessToken(String refreshToken) {
 
-        String email;
+        JwtClaims claims;
 
-        // Extract email from refresh token
+        // Verify refresh token and extract its claims
 
         try {
-            email = jwtService.extractUsername(refreshToken);
+            claims = jwtService.verify(refreshToken);
         } catch (Exception e) {
             throw new AuthorizationException("Invalid refresh token", ErrorCode.INVALID_TOKEN);
         }
 
-        User user = userService.findByEmail(email);
+        User user = userService.findByEmail(claims.getSubject());
 
         // validate refresh token
 
-        if (!jwtService.isTokenValid(refreshToken, user)) {
+        if (!jwtService.isTokenValid(claims, user)) {
             throw new AuthorizationException("Refresh token expired or invalid", ErrorCode.TOKEN_EXPIRED);
         }
 
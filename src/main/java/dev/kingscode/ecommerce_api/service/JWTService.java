@@ -1,81 +1,207 @@
 package dev.kingscode.ecommerce_api.service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import dev.kingscode.ecommerce_api.config.JwtConfig;
+import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.security.JwtClaims;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
-@RequiredArgsConstructor
-public class JWTService {
+public class JWTService implements MeterBinder {
+    private static final String ROLES_CLAIM = "roles";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String SECURITY_VERSION_CLAIM = "sv";
+
     private final JwtConfig jwtConfig;
 
+    // Both are thread-safe and expensive to build, so they are created once
+    private final SecretKey signKey;
+    private final JwtParser jwtParser;
+
+    /**
+     * Digest of a token that already passed signature verification, mapped to its
+     * claims until the token's own expiry. Only verified tokens are admitted, so
+     * random or forged tokens can't flood it.
+     */
+    private final Cache<ByteBuffer, JwtClaims> verifiedTokens;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    public JWTService(JwtConfig jwtConfig) {
+        this.jwtConfig = jwtConfig;
+        this.signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtConfig.getSecret()));
+        this.jwtParser = Jwts.parser().verifyWith(signKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtConfig.getVerifiedTokenCacheSize())
+                .expireAfter(Expiry.<ByteBuffer, JwtClaims>creating(
+                        (digest, claims) -> Duration.between(Instant.now(), claims.getExpiresAt())))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified-tokens");
+        Gauge.builder("jwt.verified-tokens.hit-ratio", verifiedTokens, cache -> cache.stats().hitRate())
+                .description("Share of token verifications served from the verified-token cache")
+                .register(registry);
+    }
+
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
+        Map<String, Object> claims = principalClaims(userDetails);
+        claims.put(ROLES_CLAIM, authorityNames(userDetails.getAuthorities()));
 
         return buildToken(claims, userDetails, jwtConfig.getExpiration());
     }
 
     public String generateRefreshToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
+        Map<String, Object> claims = principalClaims(userDetails);
 
         return buildToken(claims, userDetails, jwtConfig.getRefreshTokenExpiration());
     }
 
+    /**
+     * Verifies the token signature and expiry and returns its claims. The token
+     * is decoded exactly once; use the returned claims for any further checks.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered
+     *                                      with or expired
+     */
+    public JwtClaims verify(String token) {
+        if (jwtConfig.getVerifiedTokenCacheSize() == 0) {
+            return parse(token);
+        }
+
+        ByteBuffer digest = digest(token);
+        JwtClaims cached = verifiedTokens.getIfPresent(digest);
+
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        JwtClaims claims = parse(token);
+
+        if (claims.getExpiresAt() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+
+        return claims;
+    }
+
+    private JwtClaims parse(String token) {
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+
+        return JwtClaims.builder()
+                .subject(claims.getSubject())
+                .userId(extractUserId(claims))
+                .securityVersion(claims.get(SECURITY_VERSION_CLAIM, Integer.class))
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiresAt(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .roles(extractRoles(claims))
+                .build();
+    }
+
+    public boolean isTokenValid(JwtClaims claims, UserDetails userDetails) {
+        return claims.getSubject() != null && claims.getSubject().equals(userDetails.getUsername())
+                && !claims.isExpired() && !isRevoked(claims, userDetails);
+    }
+
     public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verify(token), userDetails);
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getSubject();
+    }
+
+    /**
+     * A token is revoked once the user's security version has moved past the one
+     * it was issued with. Tokens issued before versions existed are not checked.
+     */
+    private boolean isRevoked(JwtClaims claims, UserDetails userDetails) {
+        return claims.getSecurityVersion() != null && userDetails instanceof User user
+                && user.getSecurityVersion() > claims.getSecurityVersion();
+    }
+
+    private ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
+    private Map<String, Object> principalClaims(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+
+        if (userDetails instanceof User user) {
+            if (user.getId() != null) {
+                claims.put(USER_ID_CLAIM, user.getId().toString());
+            }
+            claims.put(SECURITY_VERSION_CLAIM, user.getSecurityVersion());
+        }
 
-        return claimResolver.apply(claims);
+        return claims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(getSignKey()).build().parseSignedClaims(token).getPayload();
+    private UUID extractUserId(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+
+        return userId != null ? UUID.fromString(userId) : null;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+
+        return values.stream().map(String::valueOf).toList();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private List<String> authorityNames(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().map(GrantedAuthority::getAuthority).toList();
     }
 
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
         return Jwts.builder().claims().add(
                 extraClaims).subject(userDetails.getUsername()).issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtConfig.getExpiration())).and()
-                .signWith(getSignKey()).compact();
-
-    }
-
-    // private String buildToken(String email, ) {
-
-    // }
+                .signWith(signKey).compact();
 
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtConfig.getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
     }
 
 }
@@ -1,27 +1,30 @@
 package dev.kingscode.ecommerce_api.service;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import dev.kingscode.ecommerce_api.model.User;
 import dev.kingscode.ecommerce_api.repository.UserRepository;
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepo;
+    private final UserDetailsCache userCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         log.debug("Loading user by email: {}", email);
 
-        User user = userRepo.findByEmail(email).orElseThrow(() -> {
+        User user = userCache.getByEmail(email, () -> userRepo.findByEmail(email)).orElseThrow(() -> {
             log.warn("user not found with email: {}", email);
             return new UsernameNotFoundException("User not found with email " + email);
         });
@@ -32,4 +35,31 @@ public class MyUserDetailsService implements UserDetailsService {
 
     }
 
+    /**
+     * Called by {@link AuthService#authenticate} after a successful login whose
+     * stored hash uses another algorithm or cost than the current one. A failed
+     * rehash doesn't fail the login; it is retried on the next one.
+     * <p>
+     * {@code userDetails} comes from the cache, so only the hash is written, and
+     * only while it is still the one that was checked.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+
+        try {
+            if (userRepo.rehashPassword(user.getId(), user.getPassword(), newPassword) == 0) {
+                log.info("Password of user {} changed before its rehash, keeping it", user.getId());
+                return user;
+            }
+            userCache.evict(user);
+
+            log.info("Rehashed password of user {} with current hashing parameters", user.getId());
+            return user.toBuilder().password(newPassword).build();
+        } catch (Exception e) {
+            log.error("Failed to rehash password of user {}", user.getId(), e);
+            return user;
+        }
+    }
+
 }
@@ -0,0 +1,116 @@
+package dev.kingscode.ecommerce_api.service;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relays security version bumps made by the database itself, such as the V5
+ * trigger on role or status changes, to {@link UserSecurityVersionService} and
+ * drops the user from this node's {@link UserDetailsCache}. Bumps made by the
+ * app are published directly and arrive here again, which is harmless.
+ * <p>
+ * Holds one pooled connection for {@code LISTEN}. Notifications sent while it
+ * is reconnecting are lost, so every (re)connect clears the local cache; the
+ * stateless token path can't recover them and keeps trusting those tokens
+ * until they expire.
+ */
+@Slf4j
+@Component
+public class UserSecurityVersionListener implements SmartLifecycle {
+    private static final String CHANNEL = "user_security_version";
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private final DataSource dataSource;
+    private final UserSecurityVersionService securityVersionService;
+    private final UserDetailsCache userCache;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public UserSecurityVersionListener(DataSource dataSource, UserSecurityVersionService securityVersionService,
+            UserDetailsCache userCache) {
+        this.dataSource = dataSource;
+        this.securityVersionService = securityVersionService;
+        this.userCache = userCache;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().name("user-security-version-listener").daemon().start(this::listenLoop);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                userCache.evictAllLocal();
+                log.info("Listening for security version changes on {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.error("Lost security version listener connection, reconnecting in {}", RECONNECT_DELAY, e);
+
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.indexOf(':');
+
+        try {
+            UUID userId = UUID.fromString(payload.substring(0, separator));
+            int securityVersion = Integer.parseInt(payload.substring(separator + 1));
+
+            securityVersionService.publish(userId, securityVersion);
+            userCache.evictLocal(userId);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed security version notification: {}", payload);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package dev.kingscode.ecommerce_api.service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import dev.kingscode.ecommerce_api.config.JwtConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shares the latest security version of each user across nodes so the JWT
+ * filter can trust token claims without reading the users table.
+ * <p>
+ * Only users whose version was bumped have an entry; it expires together with
+ * the longest-lived token that could still carry an older version.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserSecurityVersionService {
+    private static final String KEY_PREFIX = "user:security-version:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final JwtConfig jwtConfig;
+
+    public void publish(UUID userId, int securityVersion) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + userId, String.valueOf(securityVersion),
+                    Duration.ofMillis(jwtConfig.getRefreshTokenExpiration()));
+        } catch (Exception e) {
+            // Tokens are still rejected by the database check once it is consulted
+            log.error("Failed to publish security version for user {}", userId, e);
+        }
+    }
+
+    /**
+     * Whether a token issued with {@code tokenVersion} is still current. Any
+     * doubt (e.g. Redis unavailable) is answered with false so the caller falls
+     * back to the database.
+     */
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        try {
+            String latest = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+
+            return latest == null || Integer.parseInt(latest) <= tokenVersion;
+        } catch (Exception e) {
+            log.warn("Could not read security version for user {}: {}", userId, e.getMessage());
+            return false;
+        }
+    }
+
+}
@@ -4,13 +4,14 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import dev.kingscode.ecommerce_api.dto.FileUploadResult;
@@ -24,46 +25,58 @@ import dev.kingscode.ecommerce_api.exception.ResourceConflictException;
 import dev.kingscode.ecommerce_api.exception.ResourceNotFoundException;
 import dev.kingscode.ecommerce_api.mapper.UserMapper;
 import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
 import dev.kingscode.ecommerce_api.model.enums.UserRole;
 import dev.kingscode.ecommerce_api.repository.UserRepository;
-import dev.kingscode.ecommerce_api.service.email.VerificationEmailService;
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
+import dev.kingscode.ecommerce_api.service.email.EmailThrottleService;
+import dev.kingscode.ecommerce_api.service.email.event.UserVerificationEmailEvent;
 import dev.kingscode.ecommerce_api.service.storage.FileStorageService;
 import dev.kingscode.ecommerce_api.service.storage.FileValidationService;
 import dev.kingscode.ecommerce_api.util.TokenGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * User management. There is deliberately no service-level transaction: each
+ * repository call runs in its own short transaction, so password hashing, S3
+ * uploads and Redis calls never hold a pooled connection. Emails are requested
+ * through events; the change carrying the token and the event are published in
+ * one {@link TransactionTemplate} so the email is written to the outbox
+ * atomically with it.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional
 public class UserService {
 
     private final UserRepository userRepo;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final TokenGenerator tokenGenerator;
-    private final VerificationEmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     private final FileValidationService fileValidationService;
     private final FileStorageService fileStorageService;
+    private final UserSecurityVersionService securityVersionService;
+    private final UserDetailsCache userCache;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailThrottleService emailThrottleService;
 
-    @Transactional(readOnly = true)
     public UserResponseDto getUserById(UUID userId) {
         @SuppressWarnings("null")
-        User user = userRepo.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        User user = userCache.getById(userId, () -> userRepo.findById(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
         return userMapper.toResponseDto(user);
     }
 
-    @Transactional(readOnly = true)
     public User findByEmail(String email) {
-        User user = userRepo.findByEmail(email)
+        User user = userCache.getByEmail(email, () -> userRepo.findByEmail(email))
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
 
         return user;
     }
 
-    @Transactional(readOnly = true)
     public Page<UserResponseDto> getUsers(int page, int size) {
         Pageable pageable = PageRequest.of(
                 page,
@@ -74,20 +87,34 @@ public class UserService {
 
     }
 
-    public User createUser(CreateUserRequestDto dto, boolean isAdmin) {
+    /**
+     * Persists a new user together with its verification token in one insert
+     * and writes the verification email in the same transaction. A concurrent
+     * or existing signup with the same email surfaces as a conflict from the
+     * insert itself.
+     */
+    public User createUser(CreateUserRequestDto dto, boolean isAdmin, String verificationToken,
+            Instant tokenExpiration) {
+        String encodedPassword = passwordEncoder.encode(dto.getPassword()); // hashed password
+        Instant now = Instant.now();
 
-        if (userRepo.existsByEmail(dto.getEmail())) {
-            throw new ResourceConflictException("User already exist");
-        }
+        User user = userMapper.toEntity(dto).toBuilder().id(UUID.randomUUID()).password(encodedPassword)
+                .role(isAdmin ? UserRole.ADMIN : UserRole.USER).verificationToken(verificationToken)
+                .tokenExpiration(tokenExpiration).createdAt(now).updatedAt(now).build();
 
-        String encodedPassword = passwordEncoder.encode(dto.getPassword()); // hashed password
-        User user = userMapper.toEntity(dto).toBuilder().password(encodedPassword)
-                .role(isAdmin ? UserRole.ADMIN : UserRole.USER).build();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepo.insertIfEmailAvailable(user) == 0) {
+                throw new ResourceConflictException("User already exist");
+            }
 
-        @SuppressWarnings("null")
-        User savedUser = userRepo.save(user);
+            eventPublisher.publishEvent(new UserVerificationEmailEvent(user.getEmail(), user.getFirstName(),
+                    verificationToken, tokenExpiration));
+        });
+
+        // a login right after signup must not mail the same token again
+        emailThrottleService.tryAcquire(user.getEmail(), EmailType.USER_REGISTRATION);
 
-        return savedUser;
+        return user;
     }
 
     public UserResponseDto updateUser(UUID userId, UpdateUserRequestDto dto) {
@@ -100,6 +127,7 @@ public class UserService {
                 .lastName(dto.getLastName() != null ? dto.getLastName() : existingUser.getLastName()).build();
 
         userRepo.save(updatedUser);
+        userCache.evict(updatedUser);
 
         return userMapper.toResponseDto(updatedUser);
 
@@ -110,6 +138,10 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
         userRepo.delete(existingUser);
+        userCache.evict(existingUser);
+
+        // soft delete bumps the security version, revoke outstanding tokens
+        securityVersionService.publish(existingUser.getId(), existingUser.getSecurityVersion() + 1);
     }
 
     public FileUploadResult uploadProfileImage(UUID userId, MultipartFile file) {
@@ -125,6 +157,7 @@ public class UserService {
 
         User updatedUser = existingUser.toBuilder().profileImage(uploadedFile.getUrl()).build();
         userRepo.save(updatedUser);
+        userCache.evict(updatedUser);
 
         return uploadedFile;
 
@@ -158,6 +191,7 @@ public class UserService {
         user = user.toBuilder().emailVerified(true).verificationToken(null).tokenExpiration(null).build();
 
         userRepo.save(user);
+        userCache.evict(user);
     }
 
     /**
@@ -172,11 +206,34 @@ public class UserService {
                     ErrorCode.EMAIL_ALREADY_VERIFIED);
         }
 
-        user = this.refreshVerificationTokenIfExpired(user);
+        this.requestVerificationEmail(user);
+    }
 
-        emailService.sendUserVerificationEmail(user.getEmail(), user.getFirstName(),
-                user.getVerificationToken(), user.getTokenExpiration());
+    /**
+     * Refreshes the verification token if expired and writes the verification
+     * email in the same transaction. Repeated requests within the throttle
+     * window are dropped, leaving the token of the email already sent.
+     *
+     * @return the user with its current token
+     */
+    public User requestVerificationEmail(User user) {
+        if (!emailThrottleService.tryAcquire(user.getEmail(), EmailType.USER_REGISTRATION)) {
+            return user;
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                User current = this.refreshVerificationTokenIfExpired(user);
+
+                eventPublisher.publishEvent(new UserVerificationEmailEvent(current.getEmail(),
+                        current.getFirstName(), current.getVerificationToken(), current.getTokenExpiration()));
 
+                return current;
+            });
+        } catch (RuntimeException e) {
+            emailThrottleService.release(user.getEmail(), EmailType.USER_REGISTRATION);
+            throw e;
+        }
     }
 
     /**
@@ -215,11 +272,16 @@ public class UserService {
                     .password(encodedNewPassword)
                     .pwdResetToken(null)
                     .tokenExpiration(null)
+                    .securityVersion(user.getSecurityVersion() + 1)
                     .build();
 
             log.info("Password updated successfully for {}", requestDto.getEmail());
 
             userRepo.save(updatedUser);
+            userCache.evict(updatedUser);
+
+            // tokens issued with the old password must stop working
+            securityVersionService.publish(updatedUser.getId(), updatedUser.getSecurityVersion());
 
         } catch (AuthorizationException e) {
             throw e;
@@ -229,7 +291,10 @@ public class UserService {
 
     /**
      * Checks if email verification token has expired. Generates a new token if
-     * expired
+     * expired. Only the token is written, so a stale cached {@code user} never
+     * overwrites the rest of the row.
+     *
+     * @return {@code user} with its current token
      */
     public User refreshVerificationTokenIfExpired(User user) {
         Instant now = Instant.now();
@@ -245,12 +310,16 @@ public class UserService {
         String newToken = tokenGenerator.generateToken();
         Instant newExpiry = now.plus(24, ChronoUnit.HOURS);
 
-        User updatedUser = user.toBuilder()
+        // only the token columns are written, the given user may come from the cache
+        if (userRepo.updateVerificationToken(user.getId(), newToken, newExpiry) == 0) {
+            throw new ResourceNotFoundException("User", "email", user.getEmail());
+        }
+        userCache.evict(user);
+
+        return user.toBuilder()
                 .verificationToken(newToken)
                 .tokenExpiration(newExpiry)
                 .build();
-
-        return userRepo.save(updatedUser);
     }
 
 }
@@ -0,0 +1,168 @@
+package dev.kingscode.ecommerce_api.service.async;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+
+import dev.kingscode.ecommerce_api.config.AsyncExecutorProperties.Family;
+import dev.kingscode.ecommerce_api.config.AsyncExecutorProperties.RejectionPolicy;
+import dev.kingscode.ecommerce_api.config.AsyncExecutorProperties.ThreadType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executor for one family of {@code @Async} tasks that never holds more than
+ * {@code concurrency + queue-capacity} of them. Platform families run on a
+ * fixed pool; virtual families start a virtual thread per task, with at most
+ * {@code concurrency} running at once. Once the bound is reached the
+ * {@link RejectionPolicy} pushes back on the submitter instead of letting work
+ * pile up in memory.
+ * <p>
+ * Meters, tagged with {@code executor}: {@code async.tasks.wait},
+ * {@code async.tasks.duration}, {@code async.tasks.pending},
+ * {@code async.tasks.active} and {@code async.tasks.rejected} by
+ * {@code policy}.
+ */
+@Slf4j
+public class BoundedAsyncExecutor implements AsyncTaskExecutor, AutoCloseable {
+    private final String name;
+    private final Family family;
+    private final TaskDecorator taskDecorator;
+    private final Duration shutdownTimeout;
+
+    private final ExecutorService delegate;
+    /** One permit per task admitted and not yet finished */
+    private final Semaphore admitted;
+    /** Running virtual threads; platform pools are bounded by their size */
+    private final Semaphore running;
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Timer durationTimer;
+    private final Counter rejected;
+
+    public BoundedAsyncExecutor(String name, Family family, TaskDecorator taskDecorator, Duration shutdownTimeout,
+            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.family = family;
+        this.taskDecorator = taskDecorator;
+        this.shutdownTimeout = shutdownTimeout;
+        this.admitted = new Semaphore(family.getConcurrency() + family.getQueueCapacity());
+
+        if (family.getThreads() == ThreadType.VIRTUAL) {
+            this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+            this.running = new Semaphore(family.getConcurrency());
+        } else {
+            this.delegate = Executors.newFixedThreadPool(family.getConcurrency(),
+                    Thread.ofPlatform().name(name + "-", 1).daemon().factory());
+            this.running = null;
+        }
+
+        this.waitTimer = Timer.builder("async.tasks.wait").tag("executor", name)
+                .description("Time from submission until a task starts")
+                .register(meterRegistry);
+        this.durationTimer = Timer.builder("async.tasks.duration").tag("executor", name).register(meterRegistry);
+        this.rejected = Counter.builder("async.tasks.rejected").tag("executor", name)
+                .tag("policy", family.getRejection().name().toLowerCase())
+                .description("Tasks that found the executor full")
+                .register(meterRegistry);
+
+        int capacity = family.getConcurrency() + family.getQueueCapacity();
+        Gauge.builder("async.tasks.pending", admitted, permits -> capacity - permits.availablePermits())
+                .tag("executor", name).description("Tasks admitted and not yet finished")
+                .register(meterRegistry);
+        Gauge.builder("async.tasks.active", active, AtomicInteger::get).tag("executor", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Runnable decorated = taskDecorator.decorate(task);
+
+        if (!admit()) {
+            rejected.increment();
+
+            if (family.getRejection() == RejectionPolicy.CALLER_RUNS) {
+                log.debug("Executor {} is full, running task on the caller", name);
+                durationTimer.record(decorated);
+                return;
+            }
+
+            log.warn("Executor {} is full ({} pending), rejecting task", name,
+                    family.getConcurrency() + family.getQueueCapacity());
+            throw new TaskRejectedException("Executor " + name + " is full");
+        }
+
+        long queuedAt = System.nanoTime();
+
+        try {
+            delegate.execute(() -> run(decorated, queuedAt));
+        } catch (RuntimeException e) {
+            admitted.release();
+            throw new TaskRejectedException("Executor " + name + " is shut down", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdown();
+
+        try {
+            if (!delegate.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Executor {} did not finish within {}, abandoning {} tasks", name, shutdownTimeout,
+                        delegate.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean admit() {
+        if (family.getRejection() != RejectionPolicy.WAIT) {
+            return admitted.tryAcquire();
+        }
+
+        try {
+            return admitted.tryAcquire(family.getRejectionTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run(Runnable task, long queuedAt) {
+        try {
+            if (running != null) {
+                running.acquireUninterruptibly();
+            }
+
+            waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            active.incrementAndGet();
+
+            try {
+                durationTimer.record(task);
+            } finally {
+                active.decrementAndGet();
+
+                if (running != null) {
+                    running.release();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Async task on {} failed", name, e);
+        } finally {
+            admitted.release();
+        }
+    }
+}
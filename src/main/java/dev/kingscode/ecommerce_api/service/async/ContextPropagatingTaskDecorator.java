@@ -0,0 +1,48 @@
+package dev.kingscode.ecommerce_api.service.async;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Carries the submitter's MDC and authentication over to the thread running
+ * the task, and restores what that thread had afterwards, which matters when
+ * the task runs on the submitter itself (caller-runs rejection).
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        return () -> {
+            Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            SecurityContext previousContext = SecurityContextHolder.getContext();
+
+            setMdc(mdc);
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+
+            try {
+                task.run();
+            } finally {
+                setMdc(previousMdc);
+                SecurityContextHolder.setContext(previousContext);
+            }
+        };
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dev.kingscode.ecommerce_api.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import dev.kingscode.ecommerce_api.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Size and TTL bounded near cache of {@link User} rows, indexed by email and by
+ * id. Writers call {@link #evict(User)}; the eviction is applied locally and
+ * broadcast to the other nodes over Redis pub/sub once the surrounding
+ * transaction commits.
+ * <p>
+ * Hit/miss/eviction counts are published as {@code cache.*} meters with
+ * {@code cache=users.by-email} and {@code cache=users.by-id}.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache implements MessageListener {
+    private static final String SEPARATOR = "|";
+
+    private final Cache<String, User> byEmail;
+    private final Cache<UUID, User> byId;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String invalidationChannel;
+
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    public UserDetailsCache(
+            RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.users.max-size:10000}") long maxSize,
+            @Value("${app.cache.users.ttl:5m}") Duration ttl,
+            @Value("${app.cache.users.invalidation-channel:user-cache-invalidation}") String invalidationChannel) {
+        this.redisTemplate = redisTemplate;
+        this.invalidationChannel = invalidationChannel;
+
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "users.by-email");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "users.by-id");
+
+        this.localInvalidations = Counter.builder("users.cache.invalidations").tag("source", "local")
+                .register(meterRegistry);
+        this.remoteInvalidations = Counter.builder("users.cache.invalidations").tag("source", "remote")
+                .register(meterRegistry);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(invalidationChannel));
+    }
+
+    /**
+     * Returns the cached user or runs {@code loader} once for concurrent callers
+     * of the same email. Absent users are not cached.
+     */
+    public Optional<User> getByEmail(String email, Supplier<Optional<User>> loader) {
+        return Optional.ofNullable(byEmail.get(email, key -> loader.get().map(this::indexById).orElse(null)));
+    }
+
+    public Optional<User> getById(UUID id, Supplier<Optional<User>> loader) {
+        return Optional.ofNullable(byId.get(id, key -> loader.get().map(this::indexByEmail).orElse(null)));
+    }
+
+    /**
+     * Drops the user on this node now and again after commit, then tells the
+     * other nodes to do the same.
+     */
+    public void evict(User user) {
+        UUID id = user.getId();
+        String email = user.getEmail();
+
+        evictLocal(id, email);
+        localInvalidations.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictLocal(id, email);
+                    broadcast(id, email);
+                }
+            });
+        } else {
+            broadcast(id, email);
+        }
+    }
+
+    /**
+     * Drops the user on this node only; for changes every node hears about
+     * anyway, such as {@code UserSecurityVersionListener} notifications.
+     */
+    public void evictLocal(UUID id) {
+        byId.invalidate(id);
+        byEmail.asMap().values().removeIf(user -> id.equals(user.getId()));
+    }
+
+    /** Drops every user on this node, e.g. after invalidations may have been missed */
+    public void evictAllLocal() {
+        byId.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+
+        if (separator < 0) {
+            log.warn("Ignoring malformed user cache invalidation: {}", body);
+            return;
+        }
+
+        String id = body.substring(0, separator);
+        evictLocal(id.isEmpty() ? null : UUID.fromString(id), body.substring(separator + 1));
+        remoteInvalidations.increment();
+    }
+
+    private void evictLocal(UUID id, String email) {
+        if (id != null) {
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    private void broadcast(UUID id, String email) {
+        try {
+            redisTemplate.convertAndSend(invalidationChannel,
+                    (id != null ? id.toString() : "") + SEPARATOR + (email != null ? email : ""));
+        } catch (Exception e) {
+            // other nodes fall back to the TTL
+            log.error("Failed to broadcast user cache invalidation for {}", email, e);
+        }
+    }
+
+    private User indexById(User user) {
+        byId.put(user.getId(), user);
+        return user;
+    }
+
+    private User indexByEmail(User user) {
+        byEmail.put(user.getEmail(), user);
+        return user;
+    }
+
+}
@@ -0,0 +1,286 @@
+package dev.kingscode.ecommerce_api.service.cluster;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.config.ClusterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coordinates {@code @Scheduled} jobs across replicas through Redis.
+ * <p>
+ * Singleton jobs wrap their body in {@link #runAsLeader}: the first node to
+ * claim the job's lease ({@code <prefix>:lease:<job>}) runs it and keeps the
+ * lease, renewed on every heartbeat, until it shuts down or stops renewing for
+ * {@code lease-ttl}; the other nodes skip their runs meanwhile. Each new leader
+ * gets a larger fencing token from {@code <prefix>:fence:<job>}, which jobs
+ * compare where they commit their writes (see {@link Lease}).
+ * <p>
+ * Sharded jobs split their keys with {@link #shard()}, derived from the live
+ * nodes that heartbeat into the {@code <prefix>:members} sorted set (scored
+ * by expiry).
+ * <p>
+ * Heartbeats run on their own thread, so a long job on the shared scheduler
+ * thread can't let its lease lapse. Meters: {@code cluster.lease.held},
+ * {@code cluster.lease.acquisitions} and {@code cluster.lease.losses} by
+ * {@code lease}, and {@code cluster.members}.
+ */
+@Slf4j
+@Component
+public class ClusterCoordinator implements SmartLifecycle {
+    private static final String SEPARATOR = "|";
+
+    // KEYS: lease, fencing counter. ARGV: node id, ttl millis.
+    // Returns the fencing token, or 0 if another node holds the lease
+    private static final RedisScript<Long> ACQUIRE = RedisScript.of("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+              local node, token = string.match(current, '^(.*)|(%d+)$')
+              if node ~= ARGV[1] then return 0 end
+              redis.call('PEXPIRE', KEYS[1], ARGV[2])
+              return tonumber(token)
+            end
+            local token = redis.call('INCR', KEYS[2])
+            redis.call('SET', KEYS[1], ARGV[1] .. '|' .. token, 'PX', ARGV[2])
+            return token
+            """, Long.class);
+
+    // KEYS: lease. ARGV: holder (node id|token), ttl millis. Returns 1 if still held
+    private static final RedisScript<Long> RENEW = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end
+            return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            """, Long.class);
+
+    // KEYS: lease. ARGV: holder (node id|token)
+    private static final RedisScript<Long> RELEASE = RedisScript.of("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    // KEYS: members. ARGV: node id, now, expiry. Returns the live node ids
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> HEARTBEAT = RedisScript.of("""
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[2])
+            redis.call('ZADD', KEYS[1], ARGV[3], ARGV[1])
+            return redis.call('ZRANGE', KEYS[1], 0, -1)
+            """, List.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ClusterProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /** Unique per process, so a restarted node never inherits a lease it didn't renew */
+    private final String nodeId;
+    private final Map<String, Lease> held = new ConcurrentHashMap<>();
+    private final Map<String, LeaseMeters> meters = new ConcurrentHashMap<>();
+
+    private volatile Shard shard = Shard.ALL;
+    private volatile int members = 1;
+    private ScheduledExecutorService heartbeat;
+
+    public ClusterCoordinator(RedisTemplate<String, String> redisTemplate, ClusterProperties properties,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = NodeIds.generate();
+
+        Gauge.builder("cluster.members", () -> members).register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code task} if this node holds, or can claim, the lease of
+     * {@code job}. Redis errors count as not leading, so the job is skipped
+     * rather than run on every node.
+     *
+     * @return whether the task ran here
+     */
+    public boolean runAsLeader(String job, Consumer<Lease> task) {
+        Lease lease = leaseOf(job);
+
+        if (lease == null) {
+            return false;
+        }
+
+        task.accept(lease);
+        return true;
+    }
+
+    /** This node's slice of sharded work */
+    public Shard shard() {
+        return shard;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void start() {
+        heartbeat = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("cluster-heartbeat").daemon().factory());
+        heartbeat.scheduleWithFixedDelay(this::heartbeat, 0, properties.getHeartbeatInterval().toMillis(),
+                TimeUnit.MILLISECONDS);
+
+        log.info("Cluster node {} started", nodeId);
+    }
+
+    /** Hands every lease over right away instead of letting the others wait out the ttl */
+    @Override
+    public void stop() {
+        heartbeat.shutdownNow();
+
+        held.values().forEach(lease -> {
+            lease.revoke();
+
+            try {
+                redisTemplate.execute(RELEASE, List.of(leaseKey(lease.name())), holder(lease));
+            } catch (Exception e) {
+                log.warn("Failed to release lease {}, it expires in {}", lease.name(), properties.getLeaseTtl());
+            }
+        });
+        held.clear();
+
+        try {
+            redisTemplate.opsForZSet().remove(membersKey(), nodeId);
+        } catch (Exception e) {
+            log.warn("Failed to leave cluster membership: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return heartbeat != null && !heartbeat.isShutdown();
+    }
+
+    private Lease leaseOf(String job) {
+        Lease lease = held.get(job);
+
+        if (lease != null && lease.isValid()) {
+            return lease;
+        }
+
+        if (lease != null) {
+            lost(lease);
+        }
+
+        long requestedAt = System.nanoTime();
+
+        try {
+            Long token = redisTemplate.execute(ACQUIRE, List.of(leaseKey(job), fenceKey(job)), nodeId,
+                    String.valueOf(properties.getLeaseTtl().toMillis()));
+
+            if (token == null || token == 0) {
+                return null;
+            }
+
+            lease = new Lease(job, token, properties.getLeaseTtl());
+            lease.renewed(requestedAt, properties.getLeaseTtl());
+            held.put(job, lease);
+
+            metersOf(job).acquisitions().increment();
+            log.info("Node {} leads {} with fencing token {}", nodeId, job, token);
+
+            return lease;
+        } catch (Exception e) {
+            log.warn("Failed to acquire lease {}, skipping this run: {}", job, e.getMessage());
+            return null;
+        }
+    }
+
+    private void heartbeat() {
+        for (Lease lease : held.values()) {
+            long requestedAt = System.nanoTime();
+
+            try {
+                Long renewed = redisTemplate.execute(RENEW, List.of(leaseKey(lease.name())), holder(lease),
+                        String.valueOf(properties.getLeaseTtl().toMillis()));
+
+                if (renewed != null && renewed == 1) {
+                    lease.renewed(requestedAt, properties.getLeaseTtl());
+                } else {
+                    lost(lease);
+                }
+            } catch (Exception e) {
+                // still valid until its local deadline, the next heartbeat retries
+                log.warn("Failed to renew lease {}: {}", lease.name(), e.getMessage());
+            }
+        }
+
+        try {
+            long now = Instant.now().toEpochMilli();
+            List<?> live = redisTemplate.execute(HEARTBEAT, List.of(membersKey()), nodeId, String.valueOf(now),
+                    String.valueOf(now + properties.getLeaseTtl().toMillis()));
+
+            if (live == null) {
+                return;
+            }
+
+            List<String> nodes = new ArrayList<>();
+            live.forEach(node -> nodes.add(node.toString()));
+            nodes.sort(null);
+
+            members = nodes.size();
+            shard = new Shard(nodes.indexOf(nodeId), nodes.size());
+        } catch (Exception e) {
+            // keep the last view; sharded jobs tolerate a stale one
+            log.warn("Failed to heartbeat cluster membership: {}", e.getMessage());
+        }
+    }
+
+    private void lost(Lease lease) {
+        lease.revoke();
+
+        if (held.remove(lease.name(), lease)) {
+            metersOf(lease.name()).losses().increment();
+            log.warn("Node {} lost lease {} (fencing token {})", nodeId, lease.name(), lease.fencingToken());
+        }
+    }
+
+    /** Registered on the first acquisition of each job */
+    private LeaseMeters metersOf(String job) {
+        return meters.computeIfAbsent(job, name -> {
+            Gauge.builder("cluster.lease.held", held, leases -> leases.containsKey(name) ? 1 : 0)
+                    .tag("lease", name).register(meterRegistry);
+
+            return new LeaseMeters(
+                    Counter.builder("cluster.lease.acquisitions").tag("lease", name).register(meterRegistry),
+                    Counter.builder("cluster.lease.losses").tag("lease", name).register(meterRegistry));
+        });
+    }
+
+    private String holder(Lease lease) {
+        return nodeId + SEPARATOR + lease.fencingToken();
+    }
+
+    private String leaseKey(String job) {
+        return properties.getKeyPrefix() + ":lease:" + job;
+    }
+
+    private String fenceKey(String job) {
+        return properties.getKeyPrefix() + ":fence:" + job;
+    }
+
+    private String membersKey() {
+        return properties.getKeyPrefix() + ":members";
+    }
+
+    private record LeaseMeters(Counter acquisitions, Counter losses) {
+    }
+
+}
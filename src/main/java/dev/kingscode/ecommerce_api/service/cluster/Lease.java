@@ -0,0 +1,46 @@
+package dev.kingscode.ecommerce_api.service.cluster;
+
+import java.time.Duration;
+
+/**
+ * Leadership of one job, held by this node until it stops being renewed. Long
+ * running work checks {@link #isValid()} between batches and stops once it
+ * returns false, since another node may already have taken over.
+ * <p>
+ * The fencing token grows with every change of leader, so a write guarded by
+ * it (stored next to the data and compared on update) rejects a stale leader
+ * that resumed after a pause longer than the lease.
+ */
+public final class Lease {
+    private final String name;
+    private final long fencingToken;
+    private volatile long validUntilNanos;
+
+    public Lease(String name, long fencingToken, Duration validFor) {
+        this.name = name;
+        this.fencingToken = fencingToken;
+        renewed(System.nanoTime(), validFor);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long fencingToken() {
+        return fencingToken;
+    }
+
+    /** Whether this node still holds the lease by its own clock */
+    public boolean isValid() {
+        return validUntilNanos - System.nanoTime() > 0;
+    }
+
+    /** @param renewedAtNanos taken before the renewal was sent, so the local view never outlives Redis */
+    void renewed(long renewedAtNanos, Duration validFor) {
+        validUntilNanos = renewedAtNanos + validFor.toNanos();
+    }
+
+    void revoke() {
+        validUntilNanos = System.nanoTime();
+    }
+}
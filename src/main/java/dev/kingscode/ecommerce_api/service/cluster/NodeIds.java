@@ -0,0 +1,24 @@
+package dev.kingscode.ecommerce_api.service.cluster;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+public final class NodeIds {
+
+    private NodeIds() {
+    }
+
+    /** Host name plus a random suffix, so restarts and co-located processes never share an id */
+    public static String generate() {
+        String host;
+
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+
+        return host + ":" + UUID.randomUUID();
+    }
+
+}
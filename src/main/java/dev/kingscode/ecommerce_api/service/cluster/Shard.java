@@ -0,0 +1,17 @@
+package dev.kingscode.ecommerce_api.service.cluster;
+
+/**
+ * This node's slice of sharded work: {@code index} out of {@code count} live
+ * nodes. The view follows membership changes with up to one heartbeat of
+ * delay, so for a moment two nodes may own, or nobody may own, a key; sharded
+ * jobs must be safe to repeat and run again on their next tick.
+ */
+public record Shard(int index, int count) {
+
+    /** The whole key space, until the first heartbeat has seen the membership */
+    public static final Shard ALL = new Shard(0, 1);
+
+    public boolean owns(Object key) {
+        return Math.floorMod(key.hashCode(), count) == index;
+    }
+}
@@ -0,0 +1,251 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.dto.email.DeadLetterEmail;
+import dev.kingscode.ecommerce_api.dto.email.DeadLetterFilter;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps emails that exhausted their retries in Redis, whichever queue backend
+ * is active. Entries live in the {@code <dead-letter>:entries} hash by message
+ * id and are indexed by failure time in the {@code <dead-letter>} sorted set,
+ * plus one {@code <dead-letter>:template:<name>} set per template, so paging
+ * and bulk operations never scan unrelated entries.
+ * <p>
+ * Replay and purge work through the matches in batches of
+ * {@code dead-letter-batch-size}, holding only one batch in memory. Replay
+ * re-enqueues a batch before removing it, so a crash in between duplicates
+ * rather than loses emails.
+ */
+@Slf4j
+@Service
+public class EmailDeadLetterService {
+    private static final String NO_TEMPLATE = "";
+
+    // KEYS: entries, index, template index (or index again). ARGV: id, entry, failed at
+    private static final RedisScript<Long> ADD = RedisScript.of("""
+            redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+            redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1])
+            redis.call('ZADD', KEYS[3], ARGV[3], ARGV[1])
+            return 1
+            """, Long.class);
+
+    // KEYS: entries, index. ARGV: pairs of id and template index key or ''
+    private static final RedisScript<Long> REMOVE = RedisScript.of("""
+            for i = 1, #ARGV, 2 do
+              redis.call('HDEL', KEYS[1], ARGV[i])
+              redis.call('ZREM', KEYS[2], ARGV[i])
+              if ARGV[i + 1] ~= '' then redis.call('ZREM', ARGV[i + 1], ARGV[i]) end
+            end
+            return #ARGV / 2
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final EmailQueueProperties properties;
+    private final EmailQueueService emailQueueService;
+
+    public EmailDeadLetterService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+            EmailQueueProperties properties, EmailQueueService emailQueueService) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.emailQueueService = emailQueueService;
+    }
+
+    /** Records a message whose last send attempt failed with {@code cause} */
+    public void add(EmailQueueMessage message, Exception cause) {
+        if (message.getId() == null) {
+            // queued before messages carried ids; without one it could never be dead-lettered
+            message = message.toBuilder().id(UUID.randomUUID().toString()).build();
+        }
+
+        Instant failedAt = Instant.now();
+        DeadLetterEmail entry = DeadLetterEmail.builder()
+                .id(message.getId())
+                .message(message)
+                .reason(NestedExceptionUtils.getMostSpecificCause(cause).toString())
+                .attempts(message.getRetryCount() + 1)
+                .queuedAt(message.getCreatedAt())
+                .failedAt(failedAt)
+                .build();
+
+        try {
+            String templateIndex = message.getTemplateName() != null ? templateIndex(message.getTemplateName())
+                    : index();
+
+            redisTemplate.execute(ADD, List.of(entries(), index(), templateIndex), entry.getId(),
+                    objectMapper.writeValueAsString(entry), String.valueOf(failedAt.toEpochMilli()));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to dead-letter email " + message.getId(), e);
+        }
+    }
+
+    /** Most recently failed first */
+    public Page<DeadLetterEmail> getDeadLetters(DeadLetterFilter filter, int page, int size) {
+        String index = indexFor(filter);
+        double min = minScore(filter);
+        double max = maxScore(filter, null);
+
+        Long total = redisTemplate.opsForZSet().count(index, min, max);
+        Set<String> ids = redisTemplate.opsForZSet().reverseRangeByScore(index, min, max, (long) page * size, size);
+
+        return new PageImpl<>(load(ids, filter), PageRequest.of(page, size), total != null ? total : 0);
+    }
+
+    /**
+     * Re-enqueues matching emails with a fresh retry budget, oldest first. Only
+     * emails that failed before the call started are considered, so ones that
+     * fail again during the replay are not picked up a second time.
+     *
+     * @return number of emails replayed
+     */
+    public long replay(DeadLetterFilter filter) {
+        return forEachBatch(filter, batch -> {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            emailQueueService.enqueueAll(
+                    batch.stream().map(entry -> entry.getMessage().toBuilder().retryCount(0).build()).toList());
+            remove(batch);
+        });
+    }
+
+    /** @return number of emails purged */
+    public long purge(DeadLetterFilter filter) {
+        return forEachBatch(filter, this::remove);
+    }
+
+    private long forEachBatch(DeadLetterFilter filter, Consumer<List<DeadLetterEmail>> action) {
+        String index = indexFor(filter);
+        double min = minScore(filter);
+        double max = maxScore(filter, Instant.now());
+        long handled = 0;
+        Set<String> previous = Set.of();
+
+        while (true) {
+            Set<String> ids = redisTemplate.opsForZSet().rangeByScore(index, min, max, 0,
+                    properties.getDeadLetterBatchSize());
+
+            if (ids == null || ids.isEmpty()) {
+                return handled;
+            }
+
+            // the last batch wasn't removed from the index; stop rather than spin on it
+            if (ids.equals(previous)) {
+                log.warn("Dead-letter index {} made no progress, stopping after {} emails", index, handled);
+                return handled;
+            }
+
+            List<DeadLetterEmail> batch = load(ids, filter);
+            action.accept(batch);
+            handled += batch.size();
+            previous = ids;
+        }
+    }
+
+    /**
+     * Loads the entries of {@code ids}, dropping ids without a readable entry
+     * from the main index and from the template index {@code filter} read them
+     * from, if any.
+     */
+    private List<DeadLetterEmail> load(Set<String> ids, DeadLetterFilter filter) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> idList = List.copyOf(ids);
+        List<String> payloads = redisTemplate.<String, String>opsForHash().multiGet(entries(), idList);
+        List<DeadLetterEmail> loaded = new ArrayList<>(idList.size());
+        List<String> broken = new ArrayList<>();
+
+        for (int i = 0; i < idList.size(); i++) {
+            String payload = payloads.get(i);
+
+            try {
+                if (payload != null) {
+                    loaded.add(objectMapper.readValue(payload, DeadLetterEmail.class));
+                    continue;
+                }
+            } catch (Exception e) {
+                log.error("Dropping malformed dead-letter entry {}: {}", idList.get(i), payload, e);
+            }
+
+            // index without a readable entry, drop it so bulk operations can't loop on it
+            broken.add(idList.get(i));
+            broken.add(filter.templateName() != null ? templateIndex(filter.templateName()) : NO_TEMPLATE);
+        }
+
+        if (!broken.isEmpty()) {
+            redisTemplate.execute(REMOVE, List.of(entries(), index()), broken.toArray());
+        }
+
+        return loaded;
+    }
+
+    private void remove(List<DeadLetterEmail> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>(batch.size() * 2);
+
+        for (DeadLetterEmail entry : batch) {
+            String templateName = entry.getMessage().getTemplateName();
+            args.add(entry.getId());
+            args.add(templateName != null ? templateIndex(templateName) : NO_TEMPLATE);
+        }
+
+        redisTemplate.execute(REMOVE, List.of(entries(), index()), args.toArray());
+    }
+
+    private String indexFor(DeadLetterFilter filter) {
+        return filter.templateName() != null ? templateIndex(filter.templateName()) : index();
+    }
+
+    private static double minScore(DeadLetterFilter filter) {
+        return filter.failedFrom() != null ? filter.failedFrom().toEpochMilli() : 0;
+    }
+
+    /** {@code upperBound} caps the filter's end of range when not null */
+    private static double maxScore(DeadLetterFilter filter, Instant upperBound) {
+        Instant to = filter.failedTo();
+
+        if (to == null || (upperBound != null && upperBound.isBefore(to))) {
+            to = upperBound;
+        }
+
+        return to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+    }
+
+    private String index() {
+        return properties.getDeadLetter();
+    }
+
+    private String entries() {
+        return properties.getDeadLetter() + ":entries";
+    }
+
+    private String templateIndex(String templateName) {
+        return properties.getDeadLetter() + ":template:" + templateName;
+    }
+}
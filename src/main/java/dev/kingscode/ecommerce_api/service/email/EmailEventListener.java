@@ -0,0 +1,36 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dev.kingscode.ecommerce_api.service.email.event.PasswordResetEmailEvent;
+import dev.kingscode.ecommerce_api.service.email.event.UserVerificationEmailEvent;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes emails requested by the user services to the outbox just before
+ * their transaction commits, so the email and the token it carries are stored
+ * atomically: a rolled back change never mails a token, and a committed one is
+ * never lost to a Redis outage. Outside a transaction the outbox insert runs
+ * on its own. {@link EmailOutboxRelay} moves the entries to the queue.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmailEventListener {
+    private final VerificationEmailService emailService;
+    private final EmailOutboxService emailOutboxService;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserVerification(UserVerificationEmailEvent event) {
+        emailOutboxService.add(emailService.buildUserVerificationEmail(event.email(), event.firstName(),
+                event.verificationToken(), event.tokenExpiration()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onPasswordReset(PasswordResetEmailEvent event) {
+        emailOutboxService.add(emailService.buildPasswordResetEmail(event.email(), event.firstName(),
+                event.resetToken(), event.tokenExpiration()));
+    }
+
+}
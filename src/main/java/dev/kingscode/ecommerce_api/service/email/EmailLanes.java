@@ -0,0 +1,73 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.List;
+import java.util.Map;
+
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.enums.EmailPriority;
+
+/**
+ * Weighted fair split of a claim over the priority lanes. Slots are handed out
+ * by smooth weighted round robin, and the state carries over between claims,
+ * so even one-message claims follow the weights over time: with weights 8:3:1
+ * the high lane gets 8 of every 12 slots however deep the lower lanes are, and
+ * the low lane is never starved.
+ */
+public class EmailLanes {
+    /** Claim order, highest priority first */
+    public static final List<EmailPriority> LANES = List.of(EmailPriority.values());
+
+    private final int[] weights = new int[LANES.size()];
+    private final int[] current = new int[LANES.size()];
+    private final int totalWeight;
+
+    public EmailLanes(Map<EmailPriority, Integer> priorityWeights) {
+        int total = 0;
+
+        for (int lane = 0; lane < weights.length; lane++) {
+            weights[lane] = priorityWeights.getOrDefault(LANES.get(lane), 1);
+            total += weights[lane];
+        }
+
+        this.totalWeight = total;
+    }
+
+    /** How many of {@code count} slots each lane gets, indexed like {@link #LANES} */
+    public synchronized int[] quotas(int count) {
+        int[] quotas = new int[weights.length];
+
+        for (int slot = 0; slot < count; slot++) {
+            int picked = 0;
+
+            for (int lane = 0; lane < weights.length; lane++) {
+                current[lane] += weights[lane];
+                if (current[lane] > current[picked]) {
+                    picked = lane;
+                }
+            }
+
+            current[picked] -= totalWeight;
+            quotas[picked]++;
+        }
+
+        return quotas;
+    }
+
+    /** Lane of a message; messages without a type stay in the normal lane */
+    public static EmailPriority priorityOf(EmailQueueMessage message) {
+        return message.getEmailType() != null ? message.getEmailType().getPriority() : EmailPriority.NORMAL;
+    }
+
+    /** Receipts start with the lane code so ack and requeue find the lane's keys */
+    static String receipt(EmailPriority lane, String id) {
+        return lane.getCode() + id;
+    }
+
+    static EmailPriority lane(String receipt) {
+        return EmailPriority.fromCode(receipt.charAt(0));
+    }
+
+    static String id(String receipt) {
+        return receipt.substring(1);
+    }
+}
@@ -0,0 +1,132 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Meters for the email pipeline, exposed through the actuator
+ * {@code metrics} endpoint. Per-message meters are tagged with {@code type}
+ * (the {@link EmailType}, {@code other} for messages without one):
+ * <ul>
+ * <li>{@code email.queue.depth} by {@code state}: ready, in_flight and
+ * delayed, read from Redis on every scrape</li>
+ * <li>{@code email.render.duration}: template rendering</li>
+ * <li>{@code email.send.duration}: one SMTP transaction for a batch, not
+ * tagged since a batch mixes types</li>
+ * <li>{@code email.delivery.latency}: from {@code createdAt} to a successful
+ * send, including time in the outbox, queue and retries</li>
+ * <li>{@code email.sent}, {@code email.retries} and {@code email.failures}
+ * (retries exhausted, moved to the dead letters)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class EmailMetrics {
+    private static final String OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer sendTimer;
+    private final Map<EmailType, TypeMeters> byType = new EnumMap<>(EmailType.class);
+    private final TypeMeters other;
+
+    public EmailMetrics(MeterRegistry meterRegistry, EmailQueueService emailQueueService) {
+        this.meterRegistry = meterRegistry;
+        this.sendTimer = Timer.builder("email.send.duration")
+                .description("SMTP transaction for one batch of emails")
+                .register(meterRegistry);
+
+        for (EmailType type : EmailType.values()) {
+            byType.put(type, new TypeMeters(type.name()));
+        }
+        this.other = new TypeMeters(OTHER);
+
+        depthGauge("ready", emailQueueService, EmailQueueService::depth);
+        depthGauge("in_flight", emailQueueService, EmailQueueService::inFlight);
+        depthGauge("delayed", emailQueueService, EmailQueueService::delayed);
+    }
+
+    public void recordRender(EmailQueueMessage message, long nanos) {
+        meters(message).render.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSend(long nanos) {
+        sendTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSent(EmailQueueMessage message) {
+        TypeMeters meters = meters(message);
+        meters.sent.increment();
+
+        if (message.getCreatedAt() != null) {
+            meters.latency.record(Duration.between(message.getCreatedAt(), Instant.now()));
+        }
+    }
+
+    public void recordRetry(EmailQueueMessage message) {
+        meters(message).retries.increment();
+    }
+
+    public void recordFailure(EmailQueueMessage message) {
+        meters(message).failures.increment();
+    }
+
+    /** Messages queued before the type was recorded are matched by template */
+    private TypeMeters meters(EmailQueueMessage message) {
+        if (message.getEmailType() != null) {
+            return byType.get(message.getEmailType());
+        }
+
+        for (EmailType type : EmailType.values()) {
+            if (type.getTemplateName().equals(message.getTemplateName())) {
+                return byType.get(type);
+            }
+        }
+
+        return other;
+    }
+
+    private void depthGauge(String state, EmailQueueService queue, ToLongFunction<EmailQueueService> size) {
+        Gauge.builder("email.queue.depth", queue, q -> {
+            try {
+                return size.applyAsLong(q);
+            } catch (Exception e) {
+                log.debug("Could not read email queue depth ({})", state, e);
+                return Double.NaN;
+            }
+        }).tag("state", state).description("Emails in the queue").register(meterRegistry);
+    }
+
+    private final class TypeMeters {
+        final Timer render;
+        final Timer latency;
+        final Counter sent;
+        final Counter retries;
+        final Counter failures;
+
+        TypeMeters(String type) {
+            this.render = Timer.builder("email.render.duration").tag("type", type).register(meterRegistry);
+            this.latency = Timer.builder("email.delivery.latency").tag("type", type)
+                    .description("From the email being requested to it being sent")
+                    .register(meterRegistry);
+            this.sent = Counter.builder("email.sent").tag("type", type).register(meterRegistry);
+            this.retries = Counter.builder("email.retries").tag("type", type).register(meterRegistry);
+            this.failures = Counter.builder("email.failures").tag("type", type)
+                    .description("Emails that exhausted their retries")
+                    .register(meterRegistry);
+        }
+    }
+}
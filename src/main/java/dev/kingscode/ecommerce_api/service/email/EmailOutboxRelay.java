@@ -0,0 +1,102 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.config.EmailOutboxProperties;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.EmailOutboxEntry;
+import dev.kingscode.ecommerce_api.repository.EmailOutboxRepository;
+import dev.kingscode.ecommerce_api.repository.JobFenceRepository;
+import dev.kingscode.ecommerce_api.service.cluster.ClusterCoordinator;
+import dev.kingscode.ecommerce_api.service.cluster.Lease;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves committed outbox entries to the Redis email queue, oldest first, in
+ * batches of {@code batch-size}. Each batch is locked with
+ * {@code FOR UPDATE SKIP LOCKED}, pushed to the queue and deleted in one
+ * transaction, so relays on several nodes split the work and a failed push
+ * leaves the batch for the next run. A crash between the push and the commit
+ * queues the batch twice, which the at-least-once queue tolerates anyway.
+ * <p>
+ * Only the leader of {@value #JOB} polls (see {@link ClusterCoordinator}), so
+ * adding replicas doesn't multiply the outbox scans. Each batch transaction
+ * first advances the job's fence to the lease's fencing token, so a leader
+ * that resumes after losing its lease finds a higher token and relays
+ * nothing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxRelay {
+    private static final String JOB = "email-outbox-relay";
+
+    private final EmailOutboxRepository outboxRepo;
+    private final JobFenceRepository fenceRepo;
+    private final EmailQueueService emailQueueService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final EmailOutboxProperties properties;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Scheduled(fixedDelayString = "#{@emailOutboxProperties.pollInterval.toMillis()}")
+    public void relay() {
+        clusterCoordinator.runAsLeader(JOB, this::relay);
+    }
+
+    private void relay(Lease lease) {
+        try {
+            int relayed;
+
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch(lease));
+            } while (relayed == properties.getBatchSize() && lease.isValid());
+
+        } catch (Exception e) {
+            log.error("Failed to relay email outbox, retrying on the next run", e);
+        }
+    }
+
+    private int relayBatch(Lease lease) {
+        if (fenceRepo.advance(JOB, lease.fencingToken()) == 0) {
+            log.warn("Outbox relay lease {} was superseded by a newer leader, stopping", lease.fencingToken());
+            return 0;
+        }
+
+        List<EmailOutboxEntry> batch = outboxRepo.lockOldest(properties.getBatchSize());
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<EmailQueueMessage> messages = new ArrayList<>(batch.size());
+        List<UUID> ids = new ArrayList<>(batch.size());
+
+        for (EmailOutboxEntry entry : batch) {
+            ids.add(entry.getId());
+
+            try {
+                messages.add(objectMapper.readValue(entry.getPayload(), EmailQueueMessage.class));
+            } catch (Exception e) {
+                // can never be sent, drop it instead of blocking the outbox
+                log.error("Dropping malformed email outbox entry {}: {}", entry.getId(), entry.getPayload(), e);
+            }
+        }
+
+        emailQueueService.enqueueAll(messages);
+        outboxRepo.deleteAllByIdInBatch(ids);
+
+        log.debug("Relayed {} emails from the outbox", messages.size());
+
+        return batch.size();
+    }
+}
@@ -0,0 +1,37 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes emails to the {@code email_outbox} table, joining the caller's
+ * transaction, so they are relayed to the queue only if the change that
+ * requested them commits. See {@link EmailOutboxRelay}.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+    private final EmailOutboxRepository outboxRepo;
+    private final ObjectMapper objectMapper;
+
+    public void add(EmailQueueMessage message) {
+        UUID id = UUID.randomUUID();
+
+        try {
+            // the outbox id doubles as the queue message id
+            String payload = objectMapper.writeValueAsString(message.toBuilder().id(id.toString()).build());
+            outboxRepo.insert(id, payload, Instant.now());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize email for the outbox", e);
+        }
+    }
+}
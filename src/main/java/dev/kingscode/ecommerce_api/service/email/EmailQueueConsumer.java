@@ -1,73 +1,247 @@
 package dev.kingscode.ecommerce_api.service.email;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
 import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.dto.email.QueuedEmail;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Continuously drains the email queue with {@code concurrency} send workers,
+ * each sending up to {@code send-batch-size} messages over one pooled SMTP
+ * session. A single poller claims as many messages as there is free capacity
+ * (up to {@code batch-size}) in one round trip, so no more than
+ * {@code concurrency * send-batch-size} messages are held in memory. Claimed
+ * messages are spread over as many workers as possible before batching. While
+ * the queue is empty the poller waits on the {@link EmailQueueDoorbell}, which
+ * wakes it as soon as a message is enqueued on any node; the wait doubles from
+ * {@code idle-poll-min} up to {@code doorbell.fallback-poll} (or
+ * {@code idle-poll-max} with the doorbell disabled) and resets once a message
+ * is claimed.
+ * <p>
+ * A message is acknowledged only after its send attempt, so a crash mid-send
+ * redelivers it (see {@link EmailQueueService}). A failed send is retried
+ * after an exponential backoff with jitter, starting at
+ * {@code retry-delay-seconds} and capped at {@code retry-max-delay}, so an SMTP
+ * outage doesn't burn through every retry within seconds. Once the retries
+ * are exhausted the message moves to the {@link EmailDeadLetterService}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class EmailQueueConsumer {
-    @Value("${app.mail.queue.name:email-queue}")
-    private String queueName;
+public class EmailQueueConsumer implements SmartLifecycle {
+    private final EmailQueueService emailQueueService;
+    private final EmailService emailService;
+    private final EmailDeadLetterService emailDeadLetterService;
+    private final EmailMetrics emailMetrics;
+    private final EmailQueueDoorbell doorbell;
+    private final EmailQueueProperties properties;
+
+    private volatile boolean running;
+    private Thread poller;
+    private ExecutorService senders;
+    /** One permit per message that may be in flight */
+    private Semaphore idleWorkers;
+
+    @Override
+    public void start() {
+        int concurrency = properties.getConcurrency();
+
+        senders = Executors.newFixedThreadPool(concurrency, senderThreadFactory());
+        idleWorkers = new Semaphore(concurrency * properties.getSendBatchSize());
+        running = true;
+        poller = Thread.ofPlatform().name("email-queue-poller").daemon().start(this::pollLoop);
+
+        log.info("Email queue consumer started on {} with {} workers", properties.getName(), concurrency);
+    }
 
-    @Value("${app.email.queue.max-retries:3}")
-    private int maxRetries;
+    @Override
+    public void stop() {
+        running = false;
+        poller.interrupt();
+        senders.shutdown();
 
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
-    private final EmailService emailService;
+        try {
+            poller.join(properties.getShutdownTimeout().toMillis());
+
+            if (!senders.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Email senders did not finish within {}", properties.getShutdownTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-    @Scheduled(fixedDelay = 5000) // every 5 seconds
-    public void processQueue() {
-        String payload = redisTemplate.opsForList().leftPop(queueName);
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
 
-        if (payload == null) {
-            return;
+    private void pollLoop() {
+        long idleDelay = properties.getIdlePollMin().toMillis();
+        long idleDelayMax = doorbell.isEnabled() ? properties.getDoorbell().getFallbackPoll().toMillis()
+                : properties.getIdlePollMax().toMillis();
+
+        while (running) {
+            try {
+                int reserved = reserveIdleWorkers();
+                List<QueuedEmail> claimed;
+
+                try {
+                    claimed = emailQueueService.claim(reserved);
+                } catch (Exception e) {
+                    idleWorkers.release(reserved);
+                    log.error("Failed to poll email queue {}", properties.getName(), e);
+                    Thread.sleep(properties.getIdlePollMax().toMillis());
+                    continue;
+                }
+
+                idleWorkers.release(reserved - claimed.size());
+
+                if (claimed.isEmpty()) {
+                    doorbell.await(Duration.ofMillis(idleDelay));
+                    idleDelay = Math.min(idleDelay * 2, idleDelayMax);
+                    continue;
+                }
+
+                idleDelay = properties.getIdlePollMin().toMillis();
+
+                for (List<QueuedEmail> batch : sendBatches(claimed)) {
+                    senders.execute(() -> {
+                        try {
+                            process(batch);
+                        } finally {
+                            idleWorkers.release(batch.size());
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
+    }
 
-        try {
-            EmailQueueMessage message = objectMapper.readValue(payload, EmailQueueMessage.class);
+    /** Blocks until there is room for at least one message and reserves up to batch-size */
+    private int reserveIdleWorkers() throws InterruptedException {
+        idleWorkers.acquire();
+        int reserved = 1 + idleWorkers.drainPermits();
 
-            emailService.sendHtmlEmail(message.getTo(), message.getSubject(), message.getTemplateName(),
-                    message.getVariables());
+        if (reserved > properties.getBatchSize()) {
+            idleWorkers.release(reserved - properties.getBatchSize());
+            reserved = properties.getBatchSize();
+        }
 
-            log.info("✅ Email sent to {}", message.getTo());
+        return reserved;
+    }
 
-        } catch (Exception e) {
-            handleFailure(payload, e);
+    /** One batch per worker while there are fewer messages than workers, then up to send-batch-size each */
+    private List<List<QueuedEmail>> sendBatches(List<QueuedEmail> claimed) {
+        int batches = Math.max(Math.ceilDiv(claimed.size(), properties.getSendBatchSize()),
+                Math.min(claimed.size(), properties.getConcurrency()));
+        int batchSize = Math.ceilDiv(claimed.size(), batches);
+        List<List<QueuedEmail>> split = new ArrayList<>(batches);
+
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            split.add(claimed.subList(from, Math.min(from + batchSize, claimed.size())));
         }
+
+        return split;
     }
 
-    private void handleFailure(String payload, Exception e) {
+    private void process(List<QueuedEmail> batch) {
+        Map<Integer, Exception> failures;
+
         try {
+            failures = emailService.sendHtmlEmails(batch.stream().map(QueuedEmail::message).toList());
+        } catch (Exception e) {
+            failures = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                failures.put(i, e);
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            QueuedEmail email = batch.get(i);
+            Exception failure = failures.get(i);
+
+            if (failure != null) {
+                handleFailure(email, failure);
+                continue;
+            }
+
+            log.info("✅ Email sent to {}", email.message().getTo());
+            emailMetrics.recordSent(email.message());
+
+            try {
+                emailQueueService.ack(email);
+            } catch (Exception e) {
+                // at-least-once: it is redelivered after the visibility timeout
+                log.error("Failed to acknowledge email to {}", email.message().getTo(), e);
+            }
+        }
+    }
 
-            EmailQueueMessage message = objectMapper.readValue(payload, EmailQueueMessage.class);
+    private void handleFailure(QueuedEmail email, Exception e) {
+        try {
+            EmailQueueMessage message = email.message();
 
-            if (message.getRetryCount() < maxRetries) {
+            if (message.getRetryCount() < properties.getMaxRetries()) {
                 EmailQueueMessage updatedMessage = message.toBuilder()
                         .retryCount(message.getRetryCount() + 1)
                         .build();
 
-                // Enqueue the new, updated message
-                redisTemplate.opsForList()
-                        .rightPush(queueName, objectMapper.writeValueAsString(updatedMessage));
+                Duration delay = retryDelay(updatedMessage.getRetryCount());
+
+                // Swap the in-flight message for the updated one
+                emailQueueService.requeue(email, updatedMessage, delay);
+                emailMetrics.recordRetry(message);
 
-                log.warn("🔁 Retrying email to {} (attempt {})",
-                        updatedMessage.getTo(), updatedMessage.getRetryCount());
+                log.warn("🔁 Retrying email to {} (attempt {}) in {}",
+                        updatedMessage.getTo(), updatedMessage.getRetryCount(), delay);
             } else {
-                log.error("❌ Email permanently failed: {}", message.getTo(), e);
+                // dead-letter before the ack: a crash in between leaves it in flight, not lost
+                emailDeadLetterService.add(message, e);
+                emailQueueService.ack(email);
+                emailMetrics.recordFailure(message);
+                log.error("❌ Email permanently failed, moved to dead letters: {}", message.getTo(), e);
             }
 
         } catch (Exception ex) {
+            // still in flight, redelivered once its visibility timeout expires
             log.error("Failed to process email failure", ex);
         }
     }
+
+    /**
+     * Base delay doubled per attempt and capped, then "equal jitter": half of it
+     * fixed and half random, which spreads out messages that failed together.
+     */
+    private Duration retryDelay(int attempt) {
+        long baseMillis = properties.getRetryDelaySeconds() * 1000L;
+        long capMillis = properties.getRetryMaxDelay().toMillis();
+        long backoff = Math.min(capMillis, baseMillis << Math.min(attempt - 1, 30));
+        long half = backoff / 2;
+
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(backoff - half + 1));
+    }
+
+    private static ThreadFactory senderThreadFactory() {
+        return Thread.ofPlatform().name("email-sender-", 1).daemon().factory();
+    }
 }
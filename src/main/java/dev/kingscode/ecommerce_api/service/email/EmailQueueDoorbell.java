@@ -0,0 +1,92 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Wakes idle {@link EmailQueueConsumer}s on every node as soon as messages
+ * become claimable, instead of them polling an empty queue. The queue backends
+ * {@link #ring()} after an enqueue, a promotion of due retries or a
+ * redelivery; the ring is published on {@code <name><channel-suffix>} over the
+ * shared listener container, so it costs no connection per consumer.
+ * <p>
+ * Pub/sub is fire-and-forget: a ring missed while resubscribing is covered by
+ * the consumer's idle poll, capped at {@code doorbell.fallback-poll}. A ring
+ * that arrives while the consumer is busy is remembered, so it is never lost
+ * between an empty claim and the next wait.
+ */
+@Slf4j
+@Component
+public class EmailQueueDoorbell implements MessageListener {
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final String channel;
+
+    /** At most one pending wakeup; further rings before the wait are collapsed */
+    private final Semaphore rung = new Semaphore(0);
+
+    public EmailQueueDoorbell(RedisTemplate<String, String> redisTemplate,
+            RedisMessageListenerContainer listenerContainer, EmailQueueProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = properties.getDoorbell().isEnabled();
+        this.channel = properties.getName() + properties.getDoorbell().getChannelSuffix();
+
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Wakes the local consumer and notifies the other nodes. Never throws. */
+    public void ring() {
+        if (!enabled) {
+            return;
+        }
+
+        wake();
+
+        try {
+            redisTemplate.convertAndSend(channel, "");
+        } catch (Exception e) {
+            // the messages are queued, other nodes find them on their fallback poll
+            log.warn("Failed to ring email queue doorbell: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Blocks until the doorbell rings or {@code timeout} passes.
+     *
+     * @return whether it was woken by a ring
+     */
+    public boolean await(Duration timeout) throws InterruptedException {
+        boolean woken = rung.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        rung.drainPermits();
+
+        return woken;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        wake();
+    }
+
+    private void wake() {
+        if (rung.availablePermits() == 0) {
+            rung.release();
+        }
+    }
+}
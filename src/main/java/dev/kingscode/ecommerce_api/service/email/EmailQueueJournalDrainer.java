@@ -0,0 +1,73 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.service.email.journal.EmailQueueJournal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains emails journaled while Redis was unreachable back into the queue, in
+ * order and in batches of {@code batch-size}. A batch leaves the journal only
+ * once it is in Redis, so a crash in between queues it twice rather than never.
+ */
+@Slf4j
+@Component
+public class EmailQueueJournalDrainer {
+    private final EmailQueueJournal journal;
+    private final EmailQueueService emailQueueService;
+    private final RedisSerializer<EmailQueueMessage> serializer;
+    private final EmailQueueProperties properties;
+
+    public EmailQueueJournalDrainer(ObjectProvider<EmailQueueJournal> emailQueueJournal,
+            EmailQueueService emailQueueService, RedisSerializer<EmailQueueMessage> emailQueueMessageSerializer,
+            EmailQueueProperties properties) {
+        this.journal = emailQueueJournal.getIfAvailable();
+        this.emailQueueService = emailQueueService;
+        this.serializer = emailQueueMessageSerializer;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "#{@emailQueueProperties.journal.drainInterval.toMillis()}")
+    public void drain() {
+        if (journal == null || !journal.hasPending()) {
+            return;
+        }
+
+        long drained = 0;
+
+        try {
+            List<byte[]> batch;
+
+            while (!(batch = journal.peek(properties.getBatchSize())).isEmpty()) {
+                List<EmailQueueMessage> messages = new ArrayList<>(batch.size());
+
+                for (byte[] payload : batch) {
+                    try {
+                        messages.add(serializer.deserialize(payload));
+                    } catch (Exception e) {
+                        // can never be sent, drop it instead of blocking the journal
+                        log.error("Dropping malformed journaled email", e);
+                    }
+                }
+
+                emailQueueService.enqueueDrained(messages);
+                journal.remove(batch.size());
+                drained += messages.size();
+            }
+        } catch (Exception e) {
+            log.warn("Redis still unavailable, {} journaled emails drained so far: {}", drained, e.getMessage());
+        }
+
+        if (drained > 0) {
+            log.info("Drained {} journaled emails back into the queue", drained);
+        }
+    }
+}
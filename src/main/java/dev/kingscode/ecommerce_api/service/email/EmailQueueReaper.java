@@ -0,0 +1,40 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.service.cluster.ClusterCoordinator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redelivers emails whose consumer did not acknowledge them in time. Runs on
+ * the leader of {@value #JOB} only, see {@link ClusterCoordinator}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailQueueReaper {
+    private static final String JOB = "email-queue-reaper";
+
+    private final EmailQueueService emailQueueService;
+    private final ClusterCoordinator clusterCoordinator;
+
+    @Scheduled(fixedDelayString = "#{@emailQueueProperties.reaperInterval.toMillis()}")
+    public void requeueExpired() {
+        clusterCoordinator.runAsLeader(JOB, lease -> requeueExpiredAsLeader());
+    }
+
+    private void requeueExpiredAsLeader() {
+        try {
+            long requeued = emailQueueService.requeueExpired();
+
+            if (requeued > 0) {
+                log.warn("Requeued {} emails whose visibility timeout expired", requeued);
+            }
+        } catch (Exception e) {
+            log.error("Failed to requeue expired emails", e);
+        }
+    }
+
+}
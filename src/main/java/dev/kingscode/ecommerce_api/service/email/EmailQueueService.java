@@ -1,34 +1,77 @@
 package dev.kingscode.ecommerce_api.service.email;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.stereotype.Service;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.List;
 
 import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-
-@Slf4j
-@Service
-@RequiredArgsConstructor
-public class EmailQueueService {
-    private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
-
-    @Value("${app.mail.queue.name:email-queue}")
-    private String emailQueueName;
-
-    public void enqueue(EmailQueueMessage message) {
-        try {
-            String payload = objectMapper.writeValueAsString(message);
-            redisTemplate.opsForList().rightPush(emailQueueName, payload);
-
-            log.info("📩 Email queued for {}", message.getTo());
-        } catch (Exception e) {
-            log.error("Failed to enqueue email", e);
-            throw new RuntimeException("Email queue failed", e);
-        }
+import dev.kingscode.ecommerce_api.dto.email.QueuedEmail;
+
+/**
+ * At-least-once email queue shared by all nodes. The backend is chosen with
+ * {@code app.mail.queue.backend}: {@code list} (default) or {@code stream}.
+ * Backends ring the {@link EmailQueueDoorbell} whenever messages become
+ * claimable.
+ */
+public interface EmailQueueService {
+
+    void enqueue(EmailQueueMessage message);
+
+    /**
+     * Enqueues messages in as few round trips as the backend allows. Like
+     * {@link #enqueue}, the batch is journaled locally while Redis is
+     * unreachable or older journaled messages are still waiting.
+     */
+    default void enqueueAll(List<EmailQueueMessage> messages) {
+        messages.forEach(this::enqueue);
     }
+
+    /**
+     * Pushes messages drained from the local journal straight to Redis, ahead
+     * of anything enqueued since; only for {@link EmailQueueJournalDrainer}.
+     */
+    void enqueueDrained(List<EmailQueueMessage> messages);
+
+    /**
+     * Claims up to {@code count} messages for this node. Each must be passed to
+     * {@link #ack} or {@link #requeue} once handled, otherwise it is redelivered
+     * after the visibility timeout.
+     */
+    List<QueuedEmail> claim(int count);
+
+    /** Removes a handled message */
+    void ack(QueuedEmail email);
+
+    /**
+     * Replaces a claimed message with {@code updated}, which is parked in the
+     * delay set ({@code <name>:delayed}, scored by due time) until
+     * {@link #promoteDue()} moves it back to the queue after {@code delay}.
+     */
+    void requeue(QueuedEmail email, EmailQueueMessage updated, Duration delay);
+
+    /**
+     * Moves up to {@code retry-promote-batch-size} delayed messages whose due
+     * time has passed to the tail of the queue. Safe to run on every node at
+     * once.
+     *
+     * @return number of messages promoted
+     */
+    long promoteDue();
+
+    /**
+     * Moves messages whose visibility timeout expired back to the queue. Safe to
+     * run on every node at once.
+     *
+     * @return number of messages requeued
+     */
+    long requeueExpired();
+
+    /** Messages waiting to be claimed, excluding in-flight and delayed ones */
+    long depth();
+
+    /** Messages claimed by a consumer and not yet acknowledged */
+    long inFlight();
+
+    /** Messages waiting in the delay set for their retry */
+    long delayed();
+
 }
@@ -0,0 +1,55 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.service.cluster.ClusterCoordinator;
+import dev.kingscode.ecommerce_api.service.cluster.Lease;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves delayed retries back to the email queue once they are due. A run keeps
+ * promoting full batches until the backlog of due retries is drained, capped at
+ * {@value #MAX_BATCHES_PER_RUN} batches so a retry storm can't monopolise Redis.
+ * Runs on the leader of {@value #JOB} only, see {@link ClusterCoordinator}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailRetryPromoter {
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final String JOB = "email-retry-promoter";
+
+    private final EmailQueueService emailQueueService;
+    private final ClusterCoordinator clusterCoordinator;
+    private final EmailQueueProperties properties;
+
+    @Scheduled(fixedDelayString = "#{@emailQueueProperties.retryPromoteInterval.toMillis()}")
+    public void promoteDue() {
+        clusterCoordinator.runAsLeader(JOB, this::promoteDue);
+    }
+
+    private void promoteDue(Lease lease) {
+        try {
+            long total = 0;
+
+            for (int batch = 0; batch < MAX_BATCHES_PER_RUN && lease.isValid(); batch++) {
+                long promoted = emailQueueService.promoteDue();
+                total += promoted;
+
+                if (promoted < properties.getRetryPromoteBatchSize()) {
+                    break;
+                }
+            }
+
+            if (total > 0) {
+                log.info("Promoted {} delayed email retries", total);
+            }
+        } catch (Exception e) {
+            log.error("Failed to promote delayed email retries", e);
+        }
+    }
+
+}
@@ -1,7 +1,10 @@
 package dev.kingscode.ecommerce_api.service.email;
 
+import java.util.List;
 import java.util.Map;
 
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+
 public interface EmailService {
 
     void sendSimpleEMail(String to, String subject, String text);
@@ -10,6 +13,13 @@ public interface EmailService {
 
     void sendHtmlEmail(String to, String subject, String templateName, Map<String, Object> variables);
 
+    /**
+     * Sends templated emails over a single SMTP session.
+     *
+     * @return failures by position in {@code messages}, empty when all were sent
+     */
+    Map<Integer, Exception> sendHtmlEmails(List<EmailQueueMessage> messages);
+
     // public void sendSimpleMail();
 
 }
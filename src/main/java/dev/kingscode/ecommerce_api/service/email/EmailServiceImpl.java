@@ -1,18 +1,22 @@
 package dev.kingscode.ecommerce_api.service.email;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.NonNull;
@@ -26,7 +30,8 @@ import lombok.extern.slf4j.Slf4j;
 public class EmailServiceImpl implements EmailService {
 
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
+    private final EmailMetrics emailMetrics;
 
     @Value("${app.mail.from}")
     private String from;
@@ -48,19 +53,7 @@ public class EmailServiceImpl implements EmailService {
             @NonNull String templateName,
             Map<String, Object> variables) {
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            Context context = new Context();
-            context.setVariables(variables);
-            String htmlContent = templateEngine.process(templateName, context);
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            helper.setFrom(from);
-
-            mailSender.send(message);
+            mailSender.send(createHtmlMessage(to, subject, templateName, variables));
 
             log.info("{} email sent to {}", subject, to);
 
@@ -70,6 +63,70 @@ public class EmailServiceImpl implements EmailService {
         }
     }
 
+    @Override
+    public Map<Integer, Exception> sendHtmlEmails(List<EmailQueueMessage> messages) {
+        Map<Integer, Exception> failures = new HashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        List<Integer> positions = new ArrayList<>(messages.size());
+
+        for (int i = 0; i < messages.size(); i++) {
+            EmailQueueMessage message = messages.get(i);
+
+            try {
+                long renderStart = System.nanoTime();
+                mimeMessages.add(createHtmlMessage(message.getTo(), message.getSubject(), message.getTemplateName(),
+                        message.getVariables()));
+                emailMetrics.recordRender(message, System.nanoTime() - renderStart);
+                positions.add(i);
+            } catch (Exception e) {
+                failures.put(i, e);
+            }
+        }
+
+        if (mimeMessages.isEmpty()) {
+            return failures;
+        }
+
+        long sendStart = System.nanoTime();
+
+        try {
+            mailSender.send(mimeMessages.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+
+            for (int i = 0; i < mimeMessages.size(); i++) {
+                Exception failure = failedMessages.isEmpty() ? e : failedMessages.get(mimeMessages.get(i));
+
+                if (failure != null) {
+                    failures.put(positions.get(i), failure);
+                }
+            }
+        } catch (MailException e) {
+            positions.forEach(position -> failures.put(position, e));
+        } finally {
+            emailMetrics.recordSend(System.nanoTime() - sendStart);
+        }
+
+        log.info("{} of {} emails sent in one SMTP session", messages.size() - failures.size(), messages.size());
+
+        return failures;
+    }
+
+    private MimeMessage createHtmlMessage(String to, String subject, String templateName,
+            Map<String, Object> variables) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        String htmlContent = templateRenderer.render(templateName, variables);
+
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true);
+        helper.setFrom(from);
+
+        return message;
+    }
+
     @Override
     public void sendEmailWithAttachment(@NonNull String to,
             @NonNull String subject, @NonNull String text, @NonNull String attachmentPath) {
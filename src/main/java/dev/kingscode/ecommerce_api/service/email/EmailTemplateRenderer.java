@@ -0,0 +1,190 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Renders email templates without running Thymeleaf for every message.
+ * <p>
+ * The first time a template is used it is processed once more with the
+ * invariant variables (company name, year, support address) filled in and the
+ * message's other variables replaced by slot markers. The output is split into
+ * literal segments and slots, so later renders only concatenate the segments
+ * with the HTML-escaped per-recipient values.
+ * <p>
+ * A compiled template is only trusted after it produced exactly the same HTML
+ * as Thymeleaf for a real message and for two probes that set every variable
+ * to {@code ""} and then {@code "false"}, flipping emptiness and truthiness.
+ * Templates whose output depends on variable values beyond plain substitution
+ * ({@code th:if}, {@code th:each}, utility expressions) fail that check and
+ * are always rendered by Thymeleaf. Compiled templates are rebuilt when the
+ * invariants change, e.g. at the turn of the year, or when a message brings a
+ * variable the template was not compiled with.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailTemplateRenderer {
+    // private use characters, never produced by templates or HTML escaping
+    private static final char SLOT_START = '\uE000';
+    private static final char SLOT_END = '\uE001';
+
+    /** Values every message variable is set to for the extra verification renders */
+    private static final List<String> PROBES = List.of("", "false");
+
+    private final TemplateEngine templateEngine;
+    private final EmailTemplateVariablesBuilder templateVariablesBuilder;
+
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    public String render(String templateName, Map<String, Object> variables) {
+        Map<String, Object> invariants = templateVariablesBuilder.invariantVariables();
+        CompiledTemplate compiled = compiledTemplates.get(templateName);
+
+        if (compiled != null && compiled.accepts(invariants, variables)) {
+            return compiled.isStatic() ? compiled.merge(variables) : process(templateName, variables, invariants);
+        }
+
+        String html = process(templateName, variables, invariants);
+        compiledTemplates.put(templateName, verifiedCompile(templateName, invariants, variables, html));
+
+        return html;
+    }
+
+    private String process(String templateName, Map<String, Object> variables, Map<String, Object> invariants) {
+        Map<String, Object> merged = new HashMap<>();
+
+        if (variables != null) {
+            merged.putAll(variables);
+        }
+        merged.putAll(invariants);
+
+        Context context = new Context();
+        context.setVariables(merged);
+
+        return templateEngine.process(templateName, context);
+    }
+
+    private CompiledTemplate verifiedCompile(String templateName, Map<String, Object> invariants,
+            Map<String, Object> variables, String expected) {
+        CompiledTemplate compiled = compile(templateName, invariants, variables);
+
+        if (compiled.isStatic() && compiled.merge(variables).equals(expected)
+                && PROBES.stream().allMatch(probe -> mergesLikeThymeleaf(templateName, compiled, invariants,
+                        probeVariables(variables, probe)))) {
+            log.debug("Compiled email template {} into {} slots", templateName, compiled.slots().size());
+            return compiled;
+        }
+
+        log.info("Email template {} is not plain substitution, rendering it with Thymeleaf", templateName);
+        return CompiledTemplate.dynamic(invariants, compiled.variableNames());
+    }
+
+    private boolean mergesLikeThymeleaf(String templateName, CompiledTemplate compiled,
+            Map<String, Object> invariants, Map<String, Object> variables) {
+        try {
+            return compiled.merge(variables).equals(process(templateName, variables, invariants));
+        } catch (RuntimeException e) {
+            // e.g. an expression that needs the variable's real type
+            return false;
+        }
+    }
+
+    private static Map<String, Object> probeVariables(Map<String, Object> variables, String probe) {
+        Map<String, Object> probed = new HashMap<>();
+
+        if (variables != null) {
+            variables.keySet().forEach(name -> probed.put(name, probe));
+        }
+
+        return probed;
+    }
+
+    private CompiledTemplate compile(String templateName, Map<String, Object> invariants,
+            Map<String, Object> variables) {
+        Map<String, Object> markers = new HashMap<>();
+
+        if (variables != null) {
+            variables.keySet().forEach(name -> markers.put(name, SLOT_START + name + SLOT_END));
+        }
+        markers.putAll(invariants);
+
+        Context context = new Context();
+        context.setVariables(markers);
+
+        String marked = templateEngine.process(templateName, context);
+
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        int position = 0;
+
+        while (true) {
+            int start = marked.indexOf(SLOT_START, position);
+
+            if (start < 0) {
+                literals.add(marked.substring(position));
+                return new CompiledTemplate(invariants, markers.keySet(), literals, slots);
+            }
+
+            int end = marked.indexOf(SLOT_END, start);
+
+            if (end < 0) {
+                return CompiledTemplate.dynamic(invariants, markers.keySet());
+            }
+
+            literals.add(marked.substring(position, start));
+            slots.add(marked.substring(start + 1, end));
+            position = end + 1;
+        }
+    }
+
+    /**
+     * Alternating literals and slots, starting and ending with a literal;
+     * {@code literals == null} marks a template that must go through
+     * Thymeleaf.
+     */
+    private record CompiledTemplate(Map<String, Object> invariants, Set<String> variableNames,
+            List<String> literals, List<String> slots) {
+
+        static CompiledTemplate dynamic(Map<String, Object> invariants, Set<String> variableNames) {
+            return new CompiledTemplate(invariants, variableNames, null, null);
+        }
+
+        boolean accepts(Map<String, Object> currentInvariants, Map<String, Object> variables) {
+            return invariants.equals(currentInvariants)
+                    && (variables == null || variableNames.containsAll(variables.keySet()));
+        }
+
+        boolean isStatic() {
+            return literals != null;
+        }
+
+        String merge(Map<String, Object> variables) {
+            StringBuilder html = new StringBuilder(literals.stream().mapToInt(String::length).sum()
+                    + slots.size() * 32);
+
+            for (int i = 0; i < slots.size(); i++) {
+                html.append(literals.get(i));
+
+                Object value = variables != null ? variables.get(slots.get(i)) : null;
+                if (value != null) {
+                    html.append(HtmlEscape.escapeHtml4Xml(value.toString()));
+                }
+            }
+
+            return html.append(literals.get(slots.size())).toString();
+        }
+    }
+}
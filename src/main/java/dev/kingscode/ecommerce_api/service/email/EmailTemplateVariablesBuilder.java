@@ -1,5 +1,6 @@
 package dev.kingscode.ecommerce_api.service.email;
 
+import java.time.Year;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,13 +22,26 @@ public class EmailTemplateVariablesBuilder {
     @Value("${app.company.name:KingsCode E-Commerce}")
     private String companyName;
 
+    @Value("${app.company.support-email:support@kingscode.com}")
+    private String supportEmail;
+
+    /**
+     * Variables that are the same for every recipient. They are not stored
+     * with queued messages; {@link EmailTemplateRenderer} pre-renders them into
+     * the compiled templates.
+     */
+    public Map<String, Object> invariantVariables() {
+        return Map.of(
+                "companyName", companyName,
+                "currentYear", Year.now().getValue(),
+                "supportEmail", supportEmail);
+    }
+
     public Map<String, Object> buildTemplateVariables(VerificationEmailDto emailDto) {
         Map<String, Object> variables = new HashMap<>();
 
-        // common variables for all emails
+        // common per-recipient variables, see invariantVariables() for the rest
         variables.put("recipientName", emailDto.getRecipientName());
-        variables.put("currentYear", java.time.Year.now().getValue());
-        variables.put("companyName", companyName);
         if (emailDto.getVerificationToken() != null) {
             variables.put("verificationToken", emailDto.getVerificationToken());
         }
@@ -78,7 +92,6 @@ public class EmailTemplateVariablesBuilder {
 
             case WELCOME_EMAIL -> {
                 variables.put("dashboardLink", frontendBaseUrl + "/dashboard");
-                variables.put("supportEmail", "support@kingscode.com");
                 variables.put("action", "explore your new account");
             }
             default -> {
@@ -0,0 +1,82 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.Locale;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import dev.kingscode.ecommerce_api.config.EmailThrottleProperties;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collapses repeated requests for the same email to the same recipient, such
+ * as login attempts by an unverified user or a hammered resend endpoint. The
+ * first request in a window claims {@code <prefix>:<type>:<recipient>} with
+ * {@code SET NX PX}; later ones are dropped before a token is regenerated or
+ * anything is queued, so the recipient keeps the email already sent.
+ * <p>
+ * Fails open: if Redis is unreachable the email goes out.
+ * <p>
+ * Meter: {@code email.throttled} by {@code type}.
+ */
+@Slf4j
+@Service
+public class EmailThrottleService {
+    private final RedisTemplate<String, String> redisTemplate;
+    private final EmailThrottleProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public EmailThrottleService(RedisTemplate<String, String> redisTemplate, EmailThrottleProperties properties,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Claims the recipient's window for this type of email.
+     *
+     * @return false if an email of this type already went to the recipient
+     *         within the window
+     */
+    public boolean tryAcquire(String recipient, EmailType type) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+
+        try {
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key(recipient, type), "1",
+                    properties.windowFor(type));
+
+            if (Boolean.FALSE.equals(acquired)) {
+                Counter.builder("email.throttled").tag("type", type.name()).register(meterRegistry).increment();
+                log.info("Suppressed duplicate {} email to {}", type, recipient);
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("Email throttle unavailable, sending {} email to {}: {}", type, recipient, e.getMessage());
+        }
+
+        return true;
+    }
+
+    /** Gives the window back when the email could not be requested after all */
+    public void release(String recipient, EmailType type) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        try {
+            redisTemplate.delete(key(recipient, type));
+        } catch (Exception e) {
+            log.warn("Failed to release email throttle for {}", recipient, e);
+        }
+    }
+
+    private String key(String recipient, EmailType type) {
+        return properties.getKeyPrefix() + ":" + type.name() + ":" + recipient.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.dao.DataAccessException;
+
+import dev.kingscode.ecommerce_api.service.email.journal.EmailQueueJournal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routes an enqueue to the local {@link EmailQueueJournal} while Redis is
+ * unreachable, and while the journal still holds older payloads so the queue
+ * keeps their order. Without a journal Redis failures propagate.
+ */
+@Slf4j
+final class JournalFallback {
+    private final EmailQueueJournal journal;
+
+    JournalFallback(EmailQueueJournal journal) {
+        this.journal = journal;
+    }
+
+    /** @return whether the payload went to the journal instead of Redis */
+    boolean enqueue(byte[] payload, Consumer<byte[]> push) {
+        return enqueueAll(List.of(payload), () -> push.accept(payload));
+    }
+
+    /**
+     * Pushes a batch with {@code push}, or journals all of it.
+     *
+     * @return whether the batch went to the journal instead of Redis
+     */
+    boolean enqueueAll(List<byte[]> payloads, Runnable push) {
+        if (journal != null && journal.hasPending()) {
+            payloads.forEach(journal::append);
+            return true;
+        }
+
+        try {
+            push.run();
+            return false;
+        } catch (DataAccessException e) {
+            if (journal == null) {
+                throw e;
+            }
+
+            log.warn("Redis unavailable, journaling {} emails locally: {}", payloads.size(), e.getMessage());
+            payloads.forEach(journal::append);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import dev.kingscode.ecommerce_api.config.MailSessionPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps up to {@code max-sessions}
+ * authenticated SMTP connections open instead of connecting, negotiating TLS
+ * and authenticating for every {@code send} call. All messages of one
+ * {@code send(MimeMessage...)} call go over a single session.
+ * <p>
+ * Idle sessions are reused most recently used first, so surplus ones age out
+ * after {@code max-idle}. A session is closed instead of returned once it
+ * reaches {@code max-age} or {@code max-messages-per-session}, or after an
+ * error left it disconnected; one idle for longer than
+ * {@code validate-after-idle} is checked with NOOP before reuse.
+ * <p>
+ * Meters: {@code mail.smtp.sessions.opened}, {@code mail.smtp.sessions.idle}
+ * and {@code mail.smtp.sessions.active}.
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements AutoCloseable {
+    private final MailSessionPoolProperties pool;
+    private final LinkedBlockingDeque<PooledSession> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final Counter opened;
+
+    public PooledJavaMailSender(MailSessionPoolProperties pool, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        this.permits = new Semaphore(pool.getMaxSessions(), true);
+        this.opened = Counter.builder("mail.smtp.sessions.opened")
+                .description("SMTP connections opened and authenticated")
+                .register(meterRegistry);
+
+        Gauge.builder("mail.smtp.sessions.idle", idle, LinkedBlockingDeque::size).register(meterRegistry);
+        Gauge.builder("mail.smtp.sessions.active", permits, p -> pool.getMaxSessions() - p.availablePermits())
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, @Nullable Object[] originalMessages) {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledSession session = borrow();
+
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                MimeMessage mimeMessage = mimeMessages[i];
+
+                if (session == null || !session.isReusable(pool)) {
+                    close(session);
+                    session = null;
+
+                    try {
+                        session = borrowConnected();
+                    } catch (RuntimeException e) {
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], e);
+                        }
+                        break;
+                    }
+                }
+
+                try {
+                    send(session, mimeMessage);
+                } catch (Exception e) {
+                    failedMessages.put(originalMessages != null ? originalMessages[i] : mimeMessage, e);
+
+                    if (!session.transport().isConnected()) {
+                        close(session);
+                        session = null;
+                    }
+                }
+            }
+        } finally {
+            release(session);
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    @Override
+    public void close() {
+        PooledSession session;
+
+        while ((session = idle.pollFirst()) != null) {
+            close(session);
+        }
+    }
+
+    private void send(PooledSession session, MimeMessage mimeMessage) throws MessagingException {
+        // same preparation as JavaMailSenderImpl.doSend
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+
+        if (messageId != null) {
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+
+        Address[] addresses = mimeMessage.getAllRecipients();
+        session.transport().sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+        session.sent++;
+    }
+
+    /** Takes a pool permit and an open session; the permit is held until {@link #release} */
+    private PooledSession borrow() {
+        try {
+            if (!permits.tryAcquire(pool.getBorrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MailSendException("No SMTP session available within " + pool.getBorrowTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while waiting for an SMTP session", e);
+        }
+
+        try {
+            return borrowConnected();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** An open session under the permit the caller already holds */
+    private PooledSession borrowConnected() {
+        evictIdle();
+
+        PooledSession session;
+
+        while ((session = idle.pollFirst()) != null) {
+            if (session.isReusable(pool) && (session.idleMillis() < pool.getValidateAfterIdle().toMillis()
+                    || session.transport().isConnected())) {
+                return session;
+            }
+            close(session);
+        }
+
+        try {
+            Transport transport = connectTransport();
+            opened.increment();
+            return new PooledSession(transport, System.currentTimeMillis());
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Mail server connection failed", e);
+        }
+    }
+
+    private void release(@Nullable PooledSession session) {
+        try {
+            if (session != null) {
+                if (session.isReusable(pool)) {
+                    session.lastUsedAt = System.currentTimeMillis();
+                    idle.offerFirst(session);
+                } else {
+                    close(session);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Closes sessions idle for longer than max-idle, the least recently used are at the tail */
+    private void evictIdle() {
+        Iterator<PooledSession> oldestFirst = idle.descendingIterator();
+
+        while (oldestFirst.hasNext()) {
+            PooledSession session = oldestFirst.next();
+
+            if (session.idleMillis() < pool.getMaxIdle().toMillis()) {
+                return;
+            }
+            if (idle.removeLastOccurrence(session)) {
+                close(session);
+            }
+        }
+    }
+
+    private static void close(@Nullable PooledSession session) {
+        if (session == null) {
+            return;
+        }
+
+        try {
+            session.transport().close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP session", e);
+        }
+    }
+
+    private static final class PooledSession {
+        private final Transport transport;
+        private final long openedAt;
+        private long lastUsedAt;
+        private int sent;
+
+        PooledSession(Transport transport, long openedAt) {
+            this.transport = transport;
+            this.openedAt = openedAt;
+            this.lastUsedAt = openedAt;
+        }
+
+        Transport transport() {
+            return transport;
+        }
+
+        long idleMillis() {
+            return System.currentTimeMillis() - lastUsedAt;
+        }
+
+        boolean isReusable(MailSessionPoolProperties pool) {
+            return sent < pool.getMaxMessagesPerSession()
+                    && System.currentTimeMillis() - openedAt < pool.getMaxAge().toMillis();
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.dto.email.QueuedEmail;
+import dev.kingscode.ecommerce_api.model.enums.EmailPriority;
+import dev.kingscode.ecommerce_api.service.cluster.NodeIds;
+import dev.kingscode.ecommerce_api.service.email.journal.EmailQueueJournal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * At-least-once email queue on Redis lists, the default backend.
+ * <p>
+ * {@link #claim(int)} atomically moves messages from the queue into this
+ * node's own processing list and records a visibility deadline for each in a
+ * shared sorted set, so consumers on different nodes never contend for the
+ * same in-flight entries. A message leaves the processing list only through
+ * {@link #ack} or {@link #requeue} after the send attempt; entries whose
+ * deadline passed (crashed or stuck consumer) are moved back to the queue by
+ * {@link #requeueExpired()}. Retries wait in a sorted set scored by due
+ * time until {@link #promoteDue()} pushes them back onto the queue.
+ * <p>
+ * Every {@link EmailPriority} lane has its own queue, deadline and delay keys
+ * (the normal lane keeps the original unsuffixed ones); a claim is split over
+ * the lanes by {@link EmailLanes}, and the receipt records the lane.
+ * <p>
+ * Payloads are binary (see {@code app.mail.queue.codec}); since the payload
+ * itself identifies an in-flight entry, the receipt carries its bytes one char
+ * per byte (ISO-8859-1). The scripts derive processing list keys from the
+ * deadline entries, which is fine on a single Redis or a replica set but not on
+ * Redis Cluster.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.mail.queue.backend", havingValue = "list", matchIfMissing = true)
+public class RedisListEmailQueueService implements EmailQueueService {
+    private static final byte[] SEPARATOR = { '|' };
+    private static final byte[] NONE = {};
+
+    // KEYS: queue per lane (highest first), deadlines per lane, processing list.
+    // ARGV: deadline, consumer id, count, quota per lane. Returns lane index, payload pairs
+    // Each lane first gets its quota, then what is left goes to the lanes in priority order
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM = RedisScript.of("""
+            local lanes = (#KEYS - 1) / 2
+            local processing = KEYS[#KEYS]
+            local claimed = {}
+            local taken = 0
+            local function take(lane, limit)
+              if limit <= 0 then return end
+              local items = redis.call('LPOP', KEYS[lane], limit)
+              if not items then return end
+              for _, item in ipairs(items) do
+                redis.call('RPUSH', processing, item)
+                redis.call('ZADD', KEYS[lanes + lane], ARGV[1], ARGV[2] .. '|' .. item)
+                claimed[#claimed + 1] = lane
+                claimed[#claimed + 1] = item
+              end
+              taken = taken + #items
+            end
+            for lane = 1, lanes do take(lane, tonumber(ARGV[3 + lane])) end
+            for lane = 1, lanes do take(lane, tonumber(ARGV[3]) - taken) end
+            return claimed
+            """, List.class);
+
+    // KEYS: delayed, processing list, deadlines. ARGV: payload, deadline member, replacement payload or '', due time
+    private static final RedisScript<Long> ACK = RedisScript.of("""
+            if redis.call('ZREM', KEYS[3], ARGV[2]) == 0 then return 0 end
+            redis.call('LREM', KEYS[2], 1, ARGV[1])
+            if ARGV[3] ~= '' then redis.call('ZADD', KEYS[1], ARGV[4], ARGV[3]) end
+            return 1
+            """, Long.class);
+
+    // KEYS: delayed, queue. ARGV: now, limit
+    private static final RedisScript<Long> PROMOTE_DUE = RedisScript.of("""
+            local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #due == 0 then return 0 end
+            redis.call('ZREM', KEYS[1], unpack(due))
+            redis.call('RPUSH', KEYS[2], unpack(due))
+            return #due
+            """, Long.class);
+
+    // KEYS: queue, deadlines. ARGV: now, limit, processing list key prefix
+    private static final RedisScript<Long> REQUEUE_EXPIRED = RedisScript.of("""
+            local expired = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            for _, member in ipairs(expired) do
+              local sep = string.find(member, '|', 1, true)
+              local payload = string.sub(member, sep + 1)
+              redis.call('ZREM', KEYS[2], member)
+              redis.call('LREM', ARGV[3] .. string.sub(member, 1, sep - 1), 1, payload)
+              redis.call('RPUSH', KEYS[1], payload)
+            end
+            return #expired
+            """, Long.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RedisSerializer<EmailQueueMessage> serializer;
+    private final EmailQueueProperties properties;
+    private final JournalFallback fallback;
+    private final EmailQueueDoorbell doorbell;
+    private final EmailLanes lanes;
+
+    /** Owner of this node's processing list, unique per process */
+    private final String consumerId;
+
+    public RedisListEmailQueueService(RedisTemplate<String, byte[]> emailQueueRedisTemplate,
+            RedisSerializer<EmailQueueMessage> emailQueueMessageSerializer, EmailQueueProperties properties,
+            ObjectProvider<EmailQueueJournal> emailQueueJournal, EmailQueueDoorbell doorbell) {
+        this.redisTemplate = emailQueueRedisTemplate;
+        this.serializer = emailQueueMessageSerializer;
+        this.properties = properties;
+        this.fallback = new JournalFallback(emailQueueJournal.getIfAvailable());
+        this.doorbell = doorbell;
+        this.lanes = new EmailLanes(properties.getPriorityWeights());
+        this.consumerId = NodeIds.generate();
+    }
+
+    @Override
+    public void enqueue(EmailQueueMessage message) {
+        try {
+            EmailQueueMessage identified = identified(message);
+
+            String queue = EmailLanes.priorityOf(identified).key(properties.getName());
+
+            if (fallback.enqueue(serializer.serialize(identified), payload -> push(queue, payload))) {
+                log.info("📩 Email journaled for {}", message.getTo());
+            } else {
+                doorbell.ring();
+                log.info("📩 Email queued for {}", message.getTo());
+            }
+        } catch (Exception e) {
+            log.error("Failed to enqueue email", e);
+            throw new RuntimeException("Email queue failed", e);
+        }
+    }
+
+    @Override
+    public void enqueueAll(List<EmailQueueMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<EmailQueueMessage> identified = messages.stream().map(RedisListEmailQueueService::identified).toList();
+        List<byte[]> payloads = identified.stream().map(serializer::serialize).toList();
+
+        if (fallback.enqueueAll(payloads, () -> pushAll(identified, payloads))) {
+            log.info("📩 {} emails journaled", messages.size());
+        } else {
+            doorbell.ring();
+            log.info("📩 {} emails queued", messages.size());
+        }
+    }
+
+    @Override
+    public void enqueueDrained(List<EmailQueueMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<EmailQueueMessage> identified = messages.stream().map(RedisListEmailQueueService::identified).toList();
+
+        pushAll(identified, identified.stream().map(serializer::serialize).toList());
+        doorbell.ring();
+    }
+
+    @Override
+    public List<QueuedEmail> claim(int count) {
+        long deadline = Instant.now().plus(properties.getVisibilityTimeout()).toEpochMilli();
+        int[] quotas = lanes.quotas(count);
+
+        List<String> keys = new ArrayList<>();
+        EmailLanes.LANES.forEach(lane -> keys.add(lane.key(properties.getName())));
+        EmailLanes.LANES.forEach(lane -> keys.add(deadlines(lane)));
+        keys.add(processingList());
+
+        Object[] args = new Object[3 + quotas.length];
+        args[0] = deadline;
+        args[1] = consumerId;
+        args[2] = count;
+        for (int lane = 0; lane < quotas.length; lane++) {
+            args[3 + lane] = quotas[lane];
+        }
+
+        List<?> result = redisTemplate.execute(CLAIM, keys, ScriptArgs.of(args));
+
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+
+        List<QueuedEmail> claimed = new ArrayList<>(result.size() / 2);
+
+        for (int i = 0; i < result.size(); i += 2) {
+            EmailPriority lane = EmailLanes.LANES.get(((Number) result.get(i)).intValue() - 1);
+            byte[] payload = (byte[]) result.get(i + 1);
+
+            try {
+                claimed.add(new QueuedEmail(EmailLanes.receipt(lane, receipt(payload)),
+                        serializer.deserialize(payload)));
+            } catch (Exception e) {
+                // can never be sent, drop it instead of redelivering forever
+                log.error("Dropping malformed email queue entry of {} bytes", payload.length, e);
+                finish(lane, payload, NONE, 0);
+            }
+        }
+
+        return claimed;
+    }
+
+    @Override
+    public void ack(QueuedEmail email) {
+        finish(EmailLanes.lane(email.receipt()), payload(email), NONE, 0);
+    }
+
+    @Override
+    public void requeue(QueuedEmail email, EmailQueueMessage updated, Duration delay) {
+        try {
+            finish(EmailLanes.lane(email.receipt()), payload(email), serializer.serialize(updated),
+                    Instant.now().plus(delay).toEpochMilli());
+        } catch (Exception e) {
+            // left in the processing list, the reaper redelivers the original
+            log.error("Failed to requeue email to {}", updated.getTo(), e);
+        }
+    }
+
+    @Override
+    public long requeueExpired() {
+        long requeued = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long moved = redisTemplate.execute(REQUEUE_EXPIRED,
+                    List.of(lane.key(properties.getName()), deadlines(lane)), ScriptArgs.of(
+                            Instant.now().toEpochMilli(), properties.getBatchSize(), processingListPrefix()));
+            requeued += moved != null ? moved : 0;
+        }
+
+        if (requeued > 0) {
+            doorbell.ring();
+        }
+
+        return requeued;
+    }
+
+    /** Up to {@code retry-promote-batch-size} per lane */
+    @Override
+    public long promoteDue() {
+        long promoted = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long moved = redisTemplate.execute(PROMOTE_DUE,
+                    List.of(delayedKey(lane), lane.key(properties.getName())),
+                    ScriptArgs.of(Instant.now().toEpochMilli(), properties.getRetryPromoteBatchSize()));
+            promoted += moved != null ? moved : 0;
+        }
+
+        if (promoted > 0) {
+            doorbell.ring();
+        }
+
+        return promoted;
+    }
+
+    private void finish(EmailPriority lane, byte[] payload, byte[] replacement, long dueAt) {
+        Long acked = redisTemplate.execute(ACK, List.of(delayedKey(lane), processingList(), deadlines(lane)),
+                ScriptArgs.of(payload, deadlineMember(payload), replacement, dueAt));
+
+        if (acked == null || acked == 0) {
+            // the visibility timeout passed mid-send and another consumer now owns it
+            log.warn("Email queue entry was already requeued before it was acknowledged");
+        }
+    }
+
+    @Override
+    public long depth() {
+        return sum(lane -> redisTemplate.opsForList().size(lane.key(properties.getName())));
+    }
+
+    @Override
+    public long inFlight() {
+        return sum(lane -> redisTemplate.opsForZSet().zCard(deadlines(lane)));
+    }
+
+    @Override
+    public long delayed() {
+        return sum(lane -> redisTemplate.opsForZSet().zCard(delayedKey(lane)));
+    }
+
+    private void push(String queue, byte[] payload) {
+        redisTemplate.opsForList().rightPush(queue, payload);
+    }
+
+    /** One RPUSH per lane; {@code payloads} are the serialized {@code messages} */
+    private void pushAll(List<EmailQueueMessage> messages, List<byte[]> payloads) {
+        Map<EmailPriority, List<byte[]>> perLane = new EnumMap<>(EmailPriority.class);
+
+        for (int i = 0; i < messages.size(); i++) {
+            perLane.computeIfAbsent(EmailLanes.priorityOf(messages.get(i)), lane -> new ArrayList<>())
+                    .add(payloads.get(i));
+        }
+
+        perLane.forEach((lane, lanePayloads) -> redisTemplate.opsForList()
+                .rightPushAll(lane.key(properties.getName()), lanePayloads));
+    }
+
+    private static EmailQueueMessage identified(EmailQueueMessage message) {
+        return message.getId() != null ? message : message.toBuilder().id(UUID.randomUUID().toString()).build();
+    }
+
+    private static long sum(Function<EmailPriority, Long> size) {
+        long total = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long laneSize = size.apply(lane);
+            total += laneSize != null ? laneSize : 0;
+        }
+
+        return total;
+    }
+
+    private byte[] deadlineMember(byte[] payload) {
+        byte[] owner = consumerId.getBytes(StandardCharsets.UTF_8);
+        byte[] member = new byte[owner.length + SEPARATOR.length + payload.length];
+
+        System.arraycopy(owner, 0, member, 0, owner.length);
+        System.arraycopy(SEPARATOR, 0, member, owner.length, SEPARATOR.length);
+        System.arraycopy(payload, 0, member, owner.length + SEPARATOR.length, payload.length);
+
+        return member;
+    }
+
+    private static String receipt(byte[] payload) {
+        return new String(payload, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] payload(QueuedEmail email) {
+        return EmailLanes.id(email.receipt()).getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private String processingListPrefix() {
+        return properties.getName() + ":processing:";
+    }
+
+    private String processingList() {
+        return processingListPrefix() + consumerId;
+    }
+
+    private String deadlines(EmailPriority lane) {
+        return lane.key(properties.getName() + ":deadlines");
+    }
+
+    private String delayedKey(EmailPriority lane) {
+        return lane.key(properties.getName() + ":delayed");
+    }
+}
@@ -0,0 +1,409 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.dto.email.QueuedEmail;
+import dev.kingscode.ecommerce_api.model.enums.EmailPriority;
+import dev.kingscode.ecommerce_api.service.cluster.NodeIds;
+import dev.kingscode.ecommerce_api.service.email.journal.EmailQueueJournal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * At-least-once email queue on a Redis Stream ({@code <name>:stream}) read
+ * through one consumer group, so every entry is delivered to exactly one
+ * consumer across all nodes.
+ * <p>
+ * Handled entries are acknowledged and deleted, which keeps the stream at the
+ * size of the backlog. Streams are never trimmed, since a trim could only drop
+ * undelivered or pending emails; instead new enqueues are rejected while a
+ * lane holds {@code stream-max-length} entries, and the caller (e.g. the
+ * outbox) keeps them until there is room. Entries left pending longer than the
+ * visibility timeout by a crashed consumer are taken over with XAUTOCLAIM and
+ * re-added to the tail. Each node joins the group under a fresh consumer name,
+ * so the same pass deletes consumers idle for that long with nothing pending.
+ * Retries wait in the {@code <name>:delayed} sorted set, scored by due time,
+ * until {@link #promoteDue()} re-adds them to the stream.
+ * <p>
+ * Every {@link EmailPriority} lane has its own stream and delay set (the
+ * normal lane keeps the original unsuffixed keys). A claim reads each lane's
+ * {@link EmailLanes} quota, then fills what is left from the lanes in priority
+ * order; the receipt records the lane.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.mail.queue.backend", havingValue = "stream")
+public class RedisStreamEmailQueueService implements EmailQueueService {
+    private static final String PAYLOAD_FIELD = "payload";
+
+    // KEYS: stream. ARGV: group, consumer, min idle ms, count. Also drops idle consumers with nothing pending
+    private static final RedisScript<Long> REQUEUE_EXPIRED = RedisScript.of("""
+            local claimed = redis.call('XAUTOCLAIM', KEYS[1], ARGV[1], ARGV[2], ARGV[3], '0-0', 'COUNT', ARGV[4])
+            local moved = 0
+            for _, entry in ipairs(claimed[2]) do
+              local fields = entry[2]
+              if fields then
+                for i = 1, #fields, 2 do
+                  if fields[i] == 'payload' then
+                    redis.call('XADD', KEYS[1], '*', 'payload', fields[i + 1])
+                  end
+                end
+              end
+              redis.call('XACK', KEYS[1], ARGV[1], entry[1])
+              redis.call('XDEL', KEYS[1], entry[1])
+              moved = moved + 1
+            end
+            for _, info in ipairs(redis.call('XINFO', 'CONSUMERS', KEYS[1], ARGV[1])) do
+              local fields = {}
+              for i = 1, #info, 2 do fields[info[i]] = info[i + 1] end
+              if fields['name'] ~= ARGV[2] and fields['pending'] == 0 and fields['idle'] >= tonumber(ARGV[3]) then
+                redis.call('XGROUP', 'DELCONSUMER', KEYS[1], ARGV[1], fields['name'])
+              end
+            end
+            return moved
+            """, Long.class);
+
+    // KEYS: stream, delayed. ARGV: group, entry id, replacement payload, due time, consumer.
+    // Returns 0 without scheduling the retry if the entry is no longer pending for this consumer
+    private static final RedisScript<Long> DELAY = RedisScript.of("""
+            local owned = redis.call('XPENDING', KEYS[1], ARGV[1], ARGV[2], ARGV[2], 1, ARGV[5])
+            if #owned == 0 then return 0 end
+            if redis.call('XACK', KEYS[1], ARGV[1], ARGV[2]) == 0 then return 0 end
+            redis.call('ZADD', KEYS[2], ARGV[4], ARGV[3])
+            redis.call('XDEL', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS: delayed, stream. ARGV: now, limit
+    private static final RedisScript<Long> PROMOTE_DUE = RedisScript.of("""
+            local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #due == 0 then return 0 end
+            for _, payload in ipairs(due) do
+              redis.call('XADD', KEYS[2], '*', 'payload', payload)
+            end
+            redis.call('ZREM', KEYS[1], unpack(due))
+            return #due
+            """, Long.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RedisSerializer<EmailQueueMessage> serializer;
+    private final EmailQueueProperties properties;
+    private final JournalFallback fallback;
+    private final EmailQueueDoorbell doorbell;
+
+    private final EmailLanes lanes;
+    private final Consumer consumer;
+    private volatile boolean groupReady;
+
+    public RedisStreamEmailQueueService(RedisTemplate<String, byte[]> emailQueueRedisTemplate,
+            RedisSerializer<EmailQueueMessage> emailQueueMessageSerializer, EmailQueueProperties properties,
+            ObjectProvider<EmailQueueJournal> emailQueueJournal, EmailQueueDoorbell doorbell) {
+        this.redisTemplate = emailQueueRedisTemplate;
+        this.serializer = emailQueueMessageSerializer;
+        this.properties = properties;
+        this.fallback = new JournalFallback(emailQueueJournal.getIfAvailable());
+        this.doorbell = doorbell;
+        this.lanes = new EmailLanes(properties.getPriorityWeights());
+        this.consumer = Consumer.from(properties.getStreamGroup(), NodeIds.generate());
+    }
+
+    @Override
+    public void enqueue(EmailQueueMessage message) {
+        try {
+            EmailQueueMessage identified = identified(message);
+
+            EmailPriority lane = EmailLanes.priorityOf(identified);
+
+            if (fallback.enqueue(serializer.serialize(identified), payload -> add(lane, payload))) {
+                log.info("📩 Email journaled for {}", message.getTo());
+            } else {
+                doorbell.ring();
+                log.info("📩 Email queued for {}", message.getTo());
+            }
+        } catch (Exception e) {
+            log.error("Failed to enqueue email", e);
+            throw new RuntimeException("Email queue failed", e);
+        }
+    }
+
+    @Override
+    public void enqueueAll(List<EmailQueueMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<EmailQueueMessage> identified = messages.stream().map(RedisStreamEmailQueueService::identified)
+                .toList();
+        List<byte[]> payloads = identified.stream().map(serializer::serialize).toList();
+
+        if (fallback.enqueueAll(payloads, () -> addAll(identified, payloads))) {
+            log.info("📩 {} emails journaled", messages.size());
+        } else {
+            doorbell.ring();
+            log.info("📩 {} emails queued", messages.size());
+        }
+    }
+
+    @Override
+    public void enqueueDrained(List<EmailQueueMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        List<EmailQueueMessage> identified = messages.stream().map(RedisStreamEmailQueueService::identified)
+                .toList();
+
+        addAll(identified, identified.stream().map(serializer::serialize).toList());
+        doorbell.ring();
+    }
+
+    @Override
+    public List<QueuedEmail> claim(int count) {
+        ensureGroup();
+
+        int[] quotas = lanes.quotas(count);
+        boolean[] drained = new boolean[quotas.length];
+        List<QueuedEmail> claimed = new ArrayList<>(count);
+
+        for (int lane = 0; lane < quotas.length; lane++) {
+            if (quotas[lane] > 0) {
+                drained[lane] = read(EmailLanes.LANES.get(lane), quotas[lane], claimed) < quotas[lane];
+            }
+        }
+
+        // capacity left by lanes that ran dry goes to the others, highest first
+        for (int lane = 0; lane < quotas.length && claimed.size() < count; lane++) {
+            if (!drained[lane]) {
+                read(EmailLanes.LANES.get(lane), count - claimed.size(), claimed);
+            }
+        }
+
+        return claimed;
+    }
+
+    /** @return number of entries read, including malformed ones that were dropped */
+    private int read(EmailPriority lane, int count, List<QueuedEmail> claimed) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(consumer,
+                StreamReadOptions.empty().count(count), StreamOffset.create(stream(lane), ReadOffset.lastConsumed()));
+
+        if (records == null) {
+            return 0;
+        }
+
+        for (MapRecord<String, Object, Object> record : records) {
+            String receipt = EmailLanes.receipt(lane, record.getId().getValue());
+            Object payload = record.getValue().get(PAYLOAD_FIELD);
+
+            try {
+                claimed.add(new QueuedEmail(receipt, serializer.deserialize((byte[]) payload)));
+            } catch (Exception e) {
+                // can never be sent, drop it instead of redelivering forever
+                log.error("Dropping malformed email stream entry {}", receipt, e);
+                remove(receipt);
+            }
+        }
+
+        return records.size();
+    }
+
+    @Override
+    public void ack(QueuedEmail email) {
+        remove(email.receipt());
+    }
+
+    @Override
+    public void requeue(QueuedEmail email, EmailQueueMessage updated, Duration delay) {
+        try {
+            EmailPriority lane = EmailLanes.lane(email.receipt());
+
+            Long delayed = redisTemplate.execute(DELAY, List.of(stream(lane), delayedKey(lane)),
+                    ScriptArgs.of(consumer.getGroup(), EmailLanes.id(email.receipt()), serializer.serialize(updated),
+                            Instant.now().plus(delay).toEpochMilli(), consumer.getName()));
+
+            if (delayed == null || delayed == 0) {
+                // the visibility timeout passed mid-send and the entry was reclaimed
+                log.warn("Email stream entry was already reclaimed before its retry was scheduled");
+            }
+        } catch (Exception e) {
+            // still pending, it is reclaimed after the visibility timeout
+            log.error("Failed to requeue email to {}", updated.getTo(), e);
+        }
+    }
+
+    @Override
+    public long requeueExpired() {
+        ensureGroup();
+
+        long requeued = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long moved = redisTemplate.execute(REQUEUE_EXPIRED, List.of(stream(lane)),
+                    ScriptArgs.of(consumer.getGroup(), consumer.getName(),
+                            properties.getVisibilityTimeout().toMillis(), properties.getBatchSize()));
+            requeued += moved != null ? moved : 0;
+        }
+
+        if (requeued > 0) {
+            doorbell.ring();
+        }
+
+        return requeued;
+    }
+
+    /** Up to {@code retry-promote-batch-size} per lane */
+    @Override
+    public long promoteDue() {
+        long promoted = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long moved = redisTemplate.execute(PROMOTE_DUE, List.of(delayedKey(lane), stream(lane)),
+                    ScriptArgs.of(Instant.now().toEpochMilli(), properties.getRetryPromoteBatchSize()));
+            promoted += moved != null ? moved : 0;
+        }
+
+        if (promoted > 0) {
+            doorbell.ring();
+        }
+
+        return promoted;
+    }
+
+    @Override
+    public long depth() {
+        long length = 0;
+
+        // acknowledged entries are deleted, so the streams hold the ready and pending ones
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long laneLength = redisTemplate.opsForStream().size(stream(lane));
+            length += laneLength != null ? laneLength : 0;
+        }
+
+        return Math.max(0, length - inFlight());
+    }
+
+    @Override
+    public long inFlight() {
+        ensureGroup();
+
+        long pending = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            PendingMessagesSummary summary = redisTemplate.opsForStream().pending(stream(lane), consumer.getGroup());
+            pending += summary != null ? summary.getTotalPendingMessages() : 0;
+        }
+
+        return pending;
+    }
+
+    @Override
+    public long delayed() {
+        long delayed = 0;
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            Long size = redisTemplate.opsForZSet().zCard(delayedKey(lane));
+            delayed += size != null ? size : 0;
+        }
+
+        return delayed;
+    }
+
+    private void add(EmailPriority lane, byte[] payload) {
+        ensureCapacity(lane, 1);
+        redisTemplate.opsForStream().add(stream(lane), Map.of(PAYLOAD_FIELD, payload));
+    }
+
+    /** One pipelined XADD per message; {@code payloads} are the serialized {@code messages} */
+    private void addAll(List<EmailQueueMessage> messages, List<byte[]> payloads) {
+        byte[] field = PAYLOAD_FIELD.getBytes(StandardCharsets.UTF_8);
+        Map<EmailPriority, Integer> perLane = new EnumMap<>(EmailPriority.class);
+
+        messages.forEach(message -> perLane.merge(EmailLanes.priorityOf(message), 1, Integer::sum));
+        perLane.forEach(this::ensureCapacity);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < messages.size(); i++) {
+                byte[] stream = stream(EmailLanes.priorityOf(messages.get(i))).getBytes(StandardCharsets.UTF_8);
+
+                connection.streamCommands().xAdd(StreamRecords.newRecord().in(stream)
+                        .ofBytes(Map.of(field, payloads.get(i))));
+            }
+            return null;
+        });
+    }
+
+    private static EmailQueueMessage identified(EmailQueueMessage message) {
+        return message.getId() != null ? message : message.toBuilder().id(UUID.randomUUID().toString()).build();
+    }
+
+    /** Rejects the enqueue instead of trimming, which would drop emails already queued */
+    private void ensureCapacity(EmailPriority lane, int adding) {
+        Long length = redisTemplate.opsForStream().size(stream(lane));
+
+        if (length != null && length + adding > properties.getStreamMaxLength()) {
+            throw new IllegalStateException("Email stream " + stream(lane) + " is full with " + length + " entries");
+        }
+    }
+
+    private void remove(String receipt) {
+        EmailPriority lane = EmailLanes.lane(receipt);
+        RecordId id = RecordId.of(EmailLanes.id(receipt));
+
+        redisTemplate.opsForStream().acknowledge(stream(lane), consumer.getGroup(), id);
+        redisTemplate.opsForStream().delete(stream(lane), id);
+    }
+
+    /** Creates the lane streams and group on first use; every node may race to do so */
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+
+        for (EmailPriority lane : EmailLanes.LANES) {
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                        stream(lane).getBytes(StandardCharsets.UTF_8), consumer.getGroup(), ReadOffset.from("0"),
+                        true));
+            } catch (RuntimeException e) {
+                if (!String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage()).contains("BUSYGROUP")) {
+                    throw e;
+                }
+            }
+        }
+
+        groupReady = true;
+    }
+
+    private String stream(EmailPriority lane) {
+        return lane.key(properties.getName() + ":stream");
+    }
+
+    private String delayedKey(EmailPriority lane) {
+        return lane.key(properties.getName() + ":delayed");
+    }
+
+}
@@ -0,0 +1,25 @@
+package dev.kingscode.ecommerce_api.service.email;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds Lua script arguments for the binary email queue template, which
+ * passes {@code byte[]} through untouched and cannot serialize anything else.
+ */
+final class ScriptArgs {
+
+    private ScriptArgs() {
+    }
+
+    /** Byte arrays as they are, anything else as its UTF-8 string form */
+    static Object[] of(Object... values) {
+        Object[] args = new Object[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            args[i] = values[i] instanceof byte[] bytes ? bytes
+                    : String.valueOf(values[i]).getBytes(StandardCharsets.UTF_8);
+        }
+
+        return args;
+    }
+}
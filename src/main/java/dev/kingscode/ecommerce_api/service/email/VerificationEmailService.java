@@ -1,103 +1,49 @@
 package dev.kingscode.ecommerce_api.service.email;
 
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.Map;
 
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
 import dev.kingscode.ecommerce_api.dto.email.VerificationEmailDto;
-import dev.kingscode.ecommerce_api.model.enums.EmailType;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
+/**
+ * Builds verification and password reset emails. They are queued through the
+ * outbox by {@link EmailEventListener}, never sent from here.
+ */
 @Service
 @RequiredArgsConstructor
 public class VerificationEmailService {
     private final EmailTemplateVariablesBuilder templateVariablesBuilder;
-    private final EmailQueueService emailQueueService;
 
     /**
-     * Send user registration verification email
+     * Builds the user registration verification email without queueing it
      */
-    @Async
-    public void sendUserVerificationEmail(String email, String username, String verificationToken, Instant expiryDate) {
-        VerificationEmailDto emailDto = VerificationEmailDto.forUserRegistration(email, username, verificationToken,
-                expiryDate);
-
-        sendVerificationEmail(emailDto);
-    }
-
-    /**
-     * Send password reset email
-     */
-    @Async
-    public void sendPasswordResetEmail(String email, String username,
-            String resetToken, Instant expiryDate) {
-        VerificationEmailDto emailDTO = VerificationEmailDto.forPasswordReset(
-                email, username, resetToken, expiryDate);
-
-        sendVerificationEmail(emailDTO);
+    public EmailQueueMessage buildUserVerificationEmail(String email, String username, String verificationToken,
+            Instant expiryDate) {
+        return buildMessage(
+                VerificationEmailDto.forUserRegistration(email, username, verificationToken, expiryDate));
     }
 
     /**
-     * Send welcome email after successful verification
+     * Builds the password reset email without queueing it
      */
-    @Async
-    public void sendWelcomeEmail(String email, String username) {
-        Map<String, Object> additionalData = new HashMap<>();
-        additionalData.put("loginLink", "/login");
-        additionalData.put("dashboardLink", "/dashboard");
-
-        VerificationEmailDto emailDTO = VerificationEmailDto.builder()
-                .recipientEmail(email)
-                .recipientName(username)
-                .emailType(EmailType.WELCOME_EMAIL)
-                .additionalData(additionalData)
-                .build();
-
-        sendVerificationEmail(emailDTO);
+    public EmailQueueMessage buildPasswordResetEmail(String email, String username, String resetToken,
+            Instant expiryDate) {
+        return buildMessage(VerificationEmailDto.forPasswordReset(email, username, resetToken, expiryDate));
     }
 
-    /**
-     * Resend verification email with new token
-     */
-    @Async
-    public void resendVerificationEmail(String email, String username,
-            String newToken, Instant newExpiry) {
-        sendUserVerificationEmail(email, username, newToken, newExpiry);
-        log.info("Verification email resent to: {}", email);
-    }
-
-    /**
-     * Generic method to send any verification email
-     */
-    private void sendVerificationEmail(VerificationEmailDto emailDto) {
-        try {
-            Map<String, Object> variables = templateVariablesBuilder.buildTemplateVariables(emailDto);
-
-            String subject = emailDto.getEmailType().getDefaultSubject();
-            String templateName = emailDto.getEmailType().getTemplateName();
-
-            EmailQueueMessage queueMessage = EmailQueueMessage.builder().to(emailDto.getRecipientEmail())
-                    .subject(subject).templateName(templateName).variables(variables).retryCount(0)
-                    .createdAt(Instant.now()).build();
-
-            emailQueueService.enqueue(queueMessage);
-
-            // mailService.sendHtmlEmail(emailDto.getRecipientEmail(), subject,
-            // templateName, variables);
-
-            log.info("{} email sent successfully to: {}", emailDto.getEmailType(), emailDto.getRecipientEmail());
+    private EmailQueueMessage buildMessage(VerificationEmailDto emailDto) {
+        Map<String, Object> variables = templateVariablesBuilder.buildTemplateVariables(emailDto);
 
-        } catch (Exception e) {
-            log.error("Failed to send {} email to: {}", emailDto.getEmailType(), emailDto.getRecipientEmail(), e);
+        String subject = emailDto.getEmailType().getDefaultSubject();
+        String templateName = emailDto.getEmailType().getTemplateName();
 
-            throw new RuntimeException("Failed to send verification email", e);
-        }
+        return EmailQueueMessage.builder().to(emailDto.getRecipientEmail()).subject(subject)
+                .emailType(emailDto.getEmailType()).templateName(templateName).variables(variables).retryCount(0)
+                .createdAt(Instant.now()).build();
     }
 
 }
@@ -0,0 +1,314 @@
+package dev.kingscode.ecommerce_api.service.email.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties.Codec;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
+
+/**
+ * Serializes queued emails either as JSON or in a compact versioned binary
+ * format, and reads both regardless of the configured {@link Codec} so nodes
+ * can switch formats during a rolling deploy.
+ * <p>
+ * Binary layout: a version byte, a flags byte and the body, deflated when it
+ * exceeds {@code compression-threshold} and compression actually helps.
+ * Strings are length-prefixed UTF-8, numbers are varints, and variable values
+ * carry a one-byte type tag; values other than strings, numbers and booleans
+ * are embedded as JSON. Fields may only be appended in a new version.
+ */
+public class EmailQueueMessageSerializer implements RedisSerializer<EmailQueueMessage> {
+    private static final byte VERSION_1 = 1;
+    private static final byte FLAG_DEFLATED = 1;
+    private static final byte JSON_START = '{';
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte JSON = 6;
+
+    private final ObjectMapper objectMapper;
+    private final Codec codec;
+    private final int compressionThreshold;
+
+    public EmailQueueMessageSerializer(ObjectMapper objectMapper, Codec codec, int compressionThreshold) {
+        this.objectMapper = objectMapper;
+        this.codec = codec;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(@Nullable EmailQueueMessage message) throws SerializationException {
+        if (message == null) {
+            return null;
+        }
+
+        try {
+            return codec == Codec.JSON ? objectMapper.writeValueAsBytes(message) : writeBinary(message);
+        } catch (IOException e) {
+            throw new SerializationException("Could not serialize email queue message", e);
+        }
+    }
+
+    @Override
+    public EmailQueueMessage deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try {
+            return switch (bytes[0]) {
+                case JSON_START -> objectMapper.readValue(bytes, EmailQueueMessage.class);
+                case VERSION_1 -> readBinary(bytes);
+                default -> throw new SerializationException("Unknown email queue message format " + bytes[0]);
+            };
+        } catch (IOException e) {
+            throw new SerializationException("Could not deserialize email queue message", e);
+        }
+    }
+
+    private byte[] writeBinary(EmailQueueMessage message) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(body);
+
+        writeString(out, message.getId());
+        writeString(out, message.getTo());
+        writeString(out, message.getSubject());
+        writeString(out, message.getEmailType() != null ? message.getEmailType().name() : null);
+        writeString(out, message.getText());
+        writeString(out, message.getTemplateName());
+        writeVariables(out, message.getVariables());
+        writeVarLong(out, message.getRetryCount());
+        writeInstant(out, message.getCreatedAt());
+        writeString(out, message.getAttachmentPath());
+        out.flush();
+
+        byte flags = 0;
+        byte[] payload = body.toByteArray();
+
+        if (payload.length > compressionThreshold) {
+            byte[] deflated = deflate(payload);
+
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+
+        byte[] encoded = new byte[payload.length + 2];
+        encoded[0] = VERSION_1;
+        encoded[1] = flags;
+        System.arraycopy(payload, 0, encoded, 2, payload.length);
+
+        return encoded;
+    }
+
+    private EmailQueueMessage readBinary(byte[] bytes) throws IOException {
+        InputStream body = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+
+        if ((bytes[1] & FLAG_DEFLATED) != 0) {
+            body = new InflaterInputStream(body);
+        }
+
+        try (DataInputStream in = new DataInputStream(body)) {
+            EmailQueueMessage.EmailQueueMessageBuilder message = EmailQueueMessage.builder()
+                    .id(readString(in))
+                    .to(readString(in))
+                    .subject(readString(in));
+
+            String emailType = readString(in);
+
+            return message
+                    .emailType(emailType != null ? EmailType.valueOf(emailType) : null)
+                    .text(readString(in))
+                    .templateName(readString(in))
+                    .variables(readVariables(in))
+                    .retryCount((int) readVarLong(in))
+                    .createdAt(readInstant(in))
+                    .attachmentPath(readString(in))
+                    .build();
+        }
+    }
+
+    private void writeVariables(DataOutputStream out, Map<String, Object> variables) throws IOException {
+        if (variables == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+
+        writeVarLong(out, variables.size() + 1L);
+
+        for (Map.Entry<String, Object> variable : variables.entrySet()) {
+            writeString(out, variable.getKey());
+            writeValue(out, variable.getValue());
+        }
+    }
+
+    private Map<String, Object> readVariables(DataInputStream in) throws IOException {
+        int size = (int) readVarLong(in) - 1;
+
+        if (size < 0) {
+            return null;
+        }
+
+        Map<String, Object> variables = new LinkedHashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            variables.put(readString(in), readValue(in));
+        }
+
+        return variables;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        switch (value) {
+            case null -> out.writeByte(NULL);
+            case String string -> {
+                out.writeByte(STRING);
+                writeString(out, string);
+            }
+            case Integer number -> {
+                out.writeByte(INT);
+                writeVarLong(out, zigZag(number));
+            }
+            case Long number -> {
+                out.writeByte(LONG);
+                writeVarLong(out, zigZag(number));
+            }
+            case Boolean bool -> {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean(bool);
+            }
+            case Double number -> {
+                out.writeByte(DOUBLE);
+                out.writeDouble(number);
+            }
+            default -> {
+                out.writeByte(JSON);
+                writeString(out, objectMapper.writeValueAsString(value));
+            }
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case INT -> (int) unZigZag(readVarLong(in));
+            case LONG -> unZigZag(readVarLong(in));
+            case BOOLEAN -> in.readBoolean();
+            case DOUBLE -> in.readDouble();
+            case JSON -> objectMapper.readValue(readString(in), Object.class);
+            default -> throw new IOException("Unknown variable type " + type);
+        };
+    }
+
+    /** Length + 1 as a varint, 0 for null, then UTF-8 bytes */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in) - 1;
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /** Seconds + 1 and nanos, 0 for null; queue timestamps are never before the epoch */
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        if (instant == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+
+        writeVarLong(out, instant.getEpochSecond() + 1);
+        writeVarLong(out, instant.getNano());
+    }
+
+    private static Instant readInstant(DataInputStream in) throws IOException {
+        long seconds = readVarLong(in) - 1;
+
+        return seconds < 0 ? null : Instant.ofEpochSecond(seconds, readVarLong(in));
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(data.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+            out.write(data);
+        } finally {
+            deflater.end();
+        }
+
+        return deflated.toByteArray();
+    }
+}
@@ -0,0 +1,7 @@
+package dev.kingscode.ecommerce_api.service.email.event;
+
+import java.time.Instant;
+
+/** A user requested a password reset code */
+public record PasswordResetEmailEvent(String email, String firstName, String resetToken, Instant tokenExpiration) {
+}
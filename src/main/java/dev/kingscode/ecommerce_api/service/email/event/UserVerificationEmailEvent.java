@@ -0,0 +1,8 @@
+package dev.kingscode.ecommerce_api.service.email.event;
+
+import java.time.Instant;
+
+/** A user needs a (new) email verification link */
+public record UserVerificationEmailEvent(String email, String firstName, String verificationToken,
+        Instant tokenExpiration) {
+}
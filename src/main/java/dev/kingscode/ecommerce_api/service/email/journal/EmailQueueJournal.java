@@ -0,0 +1,329 @@
+package dev.kingscode.ecommerce_api.service.email.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only, memory-mapped local journal of queue payloads, used while Redis
+ * is unreachable and drained back in order once it recovers.
+ * <p>
+ * The file is mapped once at {@code max-size}. It starts with a header (magic,
+ * epoch, read offset) followed by records of {@code [length][epoch][crc32c]
+ * [payload]}. After a restart the records from the read offset onwards are
+ * recovered up to the first one that is incomplete, corrupt or from an older
+ * epoch. Once everything has been drained the journal rewinds to the start and
+ * bumps the epoch, which invalidates the stale records left behind.
+ * <p>
+ * Appends are group committed: a flusher thread forces the written range at
+ * most every {@code flush-interval}, and {@link #append} returns once its
+ * record is on disk, so concurrent appends share one fsync.
+ * <p>
+ * Meters: {@code email.journal.used} (bytes), {@code email.journal.appended}
+ * and {@code email.journal.rejected} (journal full).
+ */
+@Slf4j
+public class EmailQueueJournal implements AutoCloseable {
+    private static final int MAGIC = 0x454d4a31; // "EMJ1"
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_HEADER_SIZE = 12;
+    private static final int EPOCH_OFFSET = 4;
+    private static final int READ_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Duration flushInterval;
+    private final Duration syncTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedCondition = lock.newCondition();
+    private final Condition durableCondition = lock.newCondition();
+
+    private int epoch;
+    private int readPosition;
+    private int writePosition;
+    private int records;
+    /** Bytes ever appended and ever forced to disk, never rewound */
+    private long appendedBytes;
+    private long durableBytes;
+    private int forcedPosition;
+    private volatile boolean open = true;
+
+    private final Thread flusher;
+    private final Counter appended;
+    private final Counter rejected;
+
+    public EmailQueueJournal(Path path, int capacity, Duration flushInterval, Duration syncTimeout,
+            MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.flushInterval = flushInterval;
+        this.syncTimeout = syncTimeout;
+
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open email queue journal " + path, e);
+        }
+
+        recover();
+
+        this.appended = Counter.builder("email.journal.appended")
+                .description("Emails written to the local journal while Redis was unreachable")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("email.journal.rejected")
+                .description("Emails refused because the local journal was full")
+                .register(meterRegistry);
+        Gauge.builder("email.journal.used", this, journal -> journal.writePosition - journal.readPosition)
+                .baseUnit("bytes").register(meterRegistry);
+
+        this.flusher = Thread.ofPlatform().name("email-journal-flusher").daemon().start(this::flushLoop);
+
+        if (records > 0) {
+            log.warn("Recovered {} undelivered emails from journal {}", records, path);
+        }
+    }
+
+    /** Whether records are waiting to be drained; new payloads must queue behind them */
+    public boolean hasPending() {
+        lock.lock();
+        try {
+            return records > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends a payload and waits until it is on disk. A payload that isn't
+     * synced within {@code sync-timeout} is reported as not durable, so the
+     * caller keeps its own copy; the record may still be drained later, which
+     * makes that a duplicate rather than a loss.
+     *
+     * @throws IllegalStateException when there is no room left, or the payload
+     *                               isn't on disk within {@code sync-timeout}
+     */
+    public void append(byte[] payload) {
+        int size = RECORD_HEADER_SIZE + payload.length;
+        long mine;
+
+        lock.lock();
+        try {
+            if (!open || capacity - writePosition < size) {
+                rejected.increment();
+                throw new IllegalStateException("Email queue journal is full");
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+
+            buffer.putInt(writePosition, payload.length);
+            buffer.putInt(writePosition + 4, epoch);
+            buffer.putInt(writePosition + 8, (int) crc.getValue());
+            buffer.put(writePosition + RECORD_HEADER_SIZE, payload);
+
+            writePosition += size;
+            records++;
+            appendedBytes += size;
+            mine = appendedBytes;
+            appendedCondition.signal();
+
+            long remaining = syncTimeout.toNanos();
+            while (durableBytes < mine && remaining > 0) {
+                remaining = durableCondition.awaitNanos(remaining);
+            }
+
+            if (durableBytes < mine) {
+                throw new IllegalStateException("Email queue journal append not synced within " + syncTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for email queue journal sync", e);
+        } finally {
+            lock.unlock();
+        }
+
+        appended.increment();
+    }
+
+    /** The oldest records, up to {@code max}, without removing them */
+    public List<byte[]> peek(int max) {
+        lock.lock();
+        try {
+            List<byte[]> batch = new ArrayList<>(Math.min(max, records));
+            int position = readPosition;
+
+            while (batch.size() < max && position < writePosition) {
+                byte[] payload = new byte[buffer.getInt(position)];
+                buffer.get(position + RECORD_HEADER_SIZE, payload);
+                batch.add(payload);
+                position += RECORD_HEADER_SIZE + payload.length;
+            }
+
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes the {@code count} oldest records once they are safely in Redis */
+    public void remove(int count) {
+        lock.lock();
+        try {
+            for (int i = 0; i < count && readPosition < writePosition; i++) {
+                readPosition += RECORD_HEADER_SIZE + buffer.getInt(readPosition);
+                records--;
+            }
+
+            if (readPosition == writePosition) {
+                // rewind; the new epoch invalidates the stale records behind us
+                epoch++;
+                readPosition = writePosition = forcedPosition = HEADER_SIZE;
+                durableBytes = appendedBytes;
+                buffer.putInt(EPOCH_OFFSET, epoch);
+            }
+
+            buffer.putInt(READ_OFFSET, readPosition);
+            buffer.force(0, HEADER_SIZE);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        flusher.interrupt();
+
+        try {
+            flusher.join(flushInterval.toMillis() + 1000);
+            buffer.force();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Failed to close email queue journal", e);
+        }
+    }
+
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            epoch = 1;
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(EPOCH_OFFSET, epoch);
+            buffer.putInt(READ_OFFSET, HEADER_SIZE);
+            buffer.force(0, HEADER_SIZE);
+        }
+
+        epoch = buffer.getInt(EPOCH_OFFSET);
+        readPosition = buffer.getInt(READ_OFFSET);
+        if (readPosition < HEADER_SIZE || readPosition > capacity) {
+            readPosition = HEADER_SIZE;
+        }
+
+        int position = readPosition;
+        CRC32C crc = new CRC32C();
+
+        while (capacity - position >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(position);
+
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_SIZE
+                    || buffer.getInt(position + 4) != epoch) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+
+            if ((int) crc.getValue() != buffer.getInt(position + 8)) {
+                log.warn("Email journal is torn at offset {}, ignoring the rest", position);
+                break;
+            }
+
+            position += RECORD_HEADER_SIZE + length;
+            records++;
+        }
+
+        writePosition = forcedPosition = position;
+    }
+
+    private void flushLoop() {
+        while (open) {
+            try {
+                lock.lock();
+                try {
+                    while (durableBytes == appendedBytes) {
+                        appendedCondition.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                // let concurrent appends pile up into one fsync
+                TimeUnit.MILLISECONDS.sleep(flushInterval.toMillis());
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to sync email queue journal", e);
+            }
+        }
+    }
+
+    private void flush() {
+        int from;
+        int to;
+        int flushEpoch;
+        long target;
+
+        lock.lock();
+        try {
+            from = forcedPosition;
+            to = writePosition;
+            flushEpoch = epoch;
+            target = appendedBytes;
+        } finally {
+            lock.unlock();
+        }
+
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+
+        lock.lock();
+        try {
+            if (flushEpoch == epoch) {
+                forcedPosition = Math.max(forcedPosition, to);
+            }
+            durableBytes = Math.max(durableBytes, target);
+            durableCondition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
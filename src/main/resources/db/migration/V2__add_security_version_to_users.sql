@@ -0,0 +1,2 @@
+ALTER TABLE users
+ADD COLUMN security_version INTEGER NOT NULL DEFAULT 0;
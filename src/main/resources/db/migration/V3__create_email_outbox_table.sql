@@ -0,0 +1,7 @@
+CREATE TABLE email_outbox (
+    id UUID PRIMARY KEY,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_email_outbox_created_at ON email_outbox (created_at);
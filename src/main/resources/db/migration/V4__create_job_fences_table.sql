@@ -0,0 +1,5 @@
+-- Highest fencing token that has written for each singleton job
+CREATE TABLE job_fences (
+    job VARCHAR(100) PRIMARY KEY,
+    token BIGINT NOT NULL
+);
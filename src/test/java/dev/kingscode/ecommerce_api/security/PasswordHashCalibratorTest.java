@@ -0,0 +1,83 @@
+package dev.kingscode.ecommerce_api.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import dev.kingscode.ecommerce_api.config.PasswordHashingConfig;
+import dev.kingscode.ecommerce_api.security.password.PasswordHashAlgorithm;
+import dev.kingscode.ecommerce_api.security.password.PasswordHashCalibrator;
+
+public class PasswordHashCalibratorTest {
+    private PasswordHashingConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new PasswordHashingConfig();
+        // unreachable target, so calibration settles on the cheapest allowed cost
+        config.setTargetLatency(Duration.ofNanos(1));
+        config.getBcrypt().setMinStrength(4);
+        config.getArgon2().setMemoryKib(1024);
+        config.getArgon2().setMinIterations(1);
+    }
+
+    @Test
+    void calibratedEncoder_NewHash_PrefixedWithAlgorithmAtMinimumCost() {
+        PasswordEncoder encoder = new PasswordHashCalibrator(config).calibratedEncoder();
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void upgradeEncoding_LegacyUnprefixedHash_MatchesAndNeedsUpgrade() {
+        PasswordEncoder encoder = new PasswordHashCalibrator(config).calibratedEncoder();
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void upgradeEncoding_HigherStoredCost_KeptSoMixedNodesDontFlipFlop() {
+        PasswordEncoder encoder = new PasswordHashCalibrator(config).calibratedEncoder();
+        String stronger = "{bcrypt}" + new BCryptPasswordEncoder(6).encode("secret");
+
+        assertTrue(encoder.matches("secret", stronger));
+        assertFalse(encoder.upgradeEncoding(stronger));
+    }
+
+    @Test
+    void upgradeEncoding_LowerStoredCost_NeedsUpgrade() {
+        config.getBcrypt().setMinStrength(6);
+        PasswordEncoder encoder = new PasswordHashCalibrator(config).calibratedEncoder();
+        String weaker = "{bcrypt}" + new BCryptPasswordEncoder(5).encode("secret");
+
+        assertTrue(encoder.matches("secret", weaker));
+        assertTrue(encoder.upgradeEncoding(weaker));
+    }
+
+    @Test
+    void upgradeEncoding_AlgorithmSwitched_BcryptHashMigratesToArgon2() {
+        String bcryptHash = new PasswordHashCalibrator(config).calibratedEncoder().encode("secret");
+
+        config.setAlgorithm(PasswordHashAlgorithm.ARGON2);
+        PasswordEncoder encoder = new PasswordHashCalibrator(config).calibratedEncoder();
+        String argon2Hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", bcryptHash));
+        assertTrue(encoder.upgradeEncoding(bcryptHash));
+        assertTrue(argon2Hash.startsWith("{argon2}$argon2id$"));
+        assertFalse(encoder.upgradeEncoding(argon2Hash));
+    }
+
+}
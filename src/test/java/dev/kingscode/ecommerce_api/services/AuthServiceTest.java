@@ -6,10 +6,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -22,13 +24,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import dev.kingscode.ecommerce_api.dto.user.request.CreateUserRequestDto;
 import dev.kingscode.ecommerce_api.dto.user.request.LoginRequestDto;
@@ -39,20 +42,28 @@ import dev.kingscode.ecommerce_api.exception.AuthenticationException;
 import dev.kingscode.ecommerce_api.exception.AuthorizationException;
 import dev.kingscode.ecommerce_api.exception.EmailNotVerifiedException;
 import dev.kingscode.ecommerce_api.exception.ErrorCode;
+import dev.kingscode.ecommerce_api.exception.ResourceNotFoundException;
 import dev.kingscode.ecommerce_api.mapper.UserMapper;
 import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
 import dev.kingscode.ecommerce_api.model.enums.UserRole;
 import dev.kingscode.ecommerce_api.repository.UserRepository;
+import dev.kingscode.ecommerce_api.security.JwtClaims;
 import dev.kingscode.ecommerce_api.service.AuthService;
 import dev.kingscode.ecommerce_api.service.JWTService;
 import dev.kingscode.ecommerce_api.service.UserService;
-import dev.kingscode.ecommerce_api.service.email.VerificationEmailService;
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
+import dev.kingscode.ecommerce_api.service.email.EmailThrottleService;
+import dev.kingscode.ecommerce_api.service.email.event.PasswordResetEmailEvent;
+import dev.kingscode.ecommerce_api.service.email.event.UserVerificationEmailEvent;
 import dev.kingscode.ecommerce_api.util.TokenGenerator;
 
 @ExtendWith(MockitoExtension.class)
 public class AuthServiceTest {
     @Mock
-    private AuthenticationManager authenticationManager;
+    private PasswordEncoder passwordEncoder;
+    @Mock
+    private UserDetailsPasswordService passwordUpgrader;
     @Mock
     private UserService userService;
     @Mock
@@ -62,9 +73,15 @@ public class AuthServiceTest {
     @Mock
     private UserMapper userMapper;
     @Mock
-    private VerificationEmailService emailService;
+    private ApplicationEventPublisher eventPublisher;
     @Mock
     private TokenGenerator tokenGenerator;
+    @Mock
+    private UserDetailsCache userCache;
+    @Mock
+    private EmailThrottleService emailThrottleService;
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @InjectMocks
     private AuthService authService;
@@ -130,13 +147,9 @@ public class AuthServiceTest {
                 .emailVerified(createdUser.isVerified())
                 .build();
 
-        when(userService.createUser(requestDto, isAdmin)).thenReturn(createdUser);
+        when(userService.createUser(eq(requestDto), eq(isAdmin), eq(generatedToken), any(Instant.class)))
+                .thenReturn(createdUser);
         when(tokenGenerator.generateToken()).thenReturn(generatedToken);
-        doNothing().when(emailService).sendUserVerificationEmail(
-                eq(requestDto.getEmail()),
-                eq(requestDto.getFirstName()),
-                eq(generatedToken),
-                any(Instant.class));
         when(userMapper.toResponseDto(createdUser)).thenReturn(mappedResponse);
 
         UserResponseDto result = authService.signup(requestDto, false);
@@ -145,14 +158,11 @@ public class AuthServiceTest {
         assertFalse(result.isEmailVerified());
         assertEquals(mappedResponse, result);
 
-        verify(userService).createUser(requestDto, isAdmin);
+        verify(userService).createUser(eq(requestDto), eq(isAdmin), eq(generatedToken), any(Instant.class));
         verify(tokenGenerator).generateToken();
-        verify(emailService).sendUserVerificationEmail(
-                eq(requestDto.getEmail()),
-                eq(requestDto.getFirstName()),
-                eq(generatedToken),
-                any(Instant.class));
-        verify(userRepo).save(any(User.class));
+        // the verification email is written by createUser in the same transaction
+        verify(eventPublisher, never()).publishEvent(any(UserVerificationEmailEvent.class));
+        verify(userRepo, never()).save(any(User.class));
         verify(userMapper).toResponseDto(createdUser);
 
     }
@@ -163,9 +173,6 @@ public class AuthServiceTest {
                 .emailVerified(true)
                 .build();
 
-        Authentication mockAuthentication = mock(Authentication.class);
-        UserDetails mockUserDetails = mock(UserDetails.class);
-
         String accessToken = "access-token";
         String refreshToken = "refresh-token";
 
@@ -184,11 +191,9 @@ public class AuthServiceTest {
                 .build();
 
         when(userService.findByEmail("test@example.com")).thenReturn(verifiedUser);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenReturn(mockAuthentication);
-        when(mockAuthentication.getPrincipal()).thenReturn(mockUserDetails);
-        when(jwtService.generateToken(mockUserDetails)).thenReturn(accessToken);
-        when(jwtService.generateRefreshToken(mockUserDetails)).thenReturn(refreshToken);
+        when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
+        when(jwtService.generateToken(verifiedUser)).thenReturn(accessToken);
+        when(jwtService.generateRefreshToken(verifiedUser)).thenReturn(refreshToken);
 
         // Act
         LoginResponseDto result = authService.authenticate(loginRequestDto);
@@ -200,10 +205,30 @@ public class AuthServiceTest {
         assertEquals("test@example.com", result.getUser().getEmail());
         assertTrue(result.getFullAuthenticated());
 
-        verify(userService).findByEmail("test@example.com");
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtService).generateToken(mockUserDetails);
-        verify(jwtService).generateRefreshToken(mockUserDetails);
+        // the single loaded user is checked and handed to the token service
+        verify(userService, times(1)).findByEmail("test@example.com");
+        verify(passwordEncoder).matches("password123", "encodedPassword");
+        verify(passwordUpgrader, never()).updatePassword(any(), anyString());
+        verify(jwtService).generateToken(verifiedUser);
+        verify(jwtService).generateRefreshToken(verifiedUser);
+    }
+
+    @Test
+    void authenticate_OutdatedHash_RehashesAndIssuesTokensForRehashedUser() {
+        User rehashedUser = testUser.toBuilder().password("{bcrypt}rehashed").build();
+
+        when(userService.findByEmail("test@example.com")).thenReturn(testUser);
+        when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("encodedPassword")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("{bcrypt}rehashed");
+        when(passwordUpgrader.updatePassword(testUser, "{bcrypt}rehashed")).thenReturn(rehashedUser);
+
+        authService.authenticate(loginRequestDto);
+
+        verify(userService, times(1)).findByEmail("test@example.com");
+        verify(passwordUpgrader).updatePassword(testUser, "{bcrypt}rehashed");
+        verify(jwtService).generateToken(rehashedUser);
+        verify(jwtService).generateRefreshToken(rehashedUser);
     }
 
     @Test
@@ -220,12 +245,7 @@ public class AuthServiceTest {
                 .build();
 
         when(userService.findByEmail("test@example.com")).thenReturn(unverifiedUser);
-        when(userService.refreshVerificationTokenIfExpired(unverifiedUser)).thenReturn(refreshedUser);
-        doNothing().when(emailService).sendUserVerificationEmail(
-                eq("test@example.com"),
-                eq("John"),
-                eq("new-token"),
-                any(Instant.class));
+        when(userService.requestVerificationEmail(unverifiedUser)).thenReturn(refreshedUser);
 
         // Action & Assertions
         EmailNotVerifiedException exception = assertThrows(EmailNotVerifiedException.class,
@@ -233,13 +253,9 @@ public class AuthServiceTest {
 
         assertEquals(ErrorCode.EMAIL_NOT_VERIFIED, exception.getErrorCode());
         verify(userService).findByEmail("test@example.com");
-        verify(userService).refreshVerificationTokenIfExpired(unverifiedUser);
-        verify(emailService).sendUserVerificationEmail(
-                eq("test@example.com"),
-                eq("John"),
-                eq("new-token"),
-                any(Instant.class));
-        verify(authenticationManager, never()).authenticate(any());
+        verify(userService).requestVerificationEmail(unverifiedUser);
+        assertEquals(refreshedUser.getEmail(), exception.getEmail());
+        verify(passwordEncoder, never()).matches(any(), any());
     }
 
     @Test
@@ -249,8 +265,7 @@ public class AuthServiceTest {
                 .build();
 
         when(userService.findByEmail("test@example.com")).thenReturn(verifiedUser);
-        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-                .thenThrow(new BadCredentialsException("Bad credentials"));
+        when(passwordEncoder.matches("password123", "encodedPassword")).thenReturn(false);
 
         AuthenticationException exception = assertThrows(AuthenticationException.class,
                 () -> authService.authenticate(loginRequestDto));
@@ -258,7 +273,7 @@ public class AuthServiceTest {
         assertEquals("Invalid email or password", exception.getMessage());
 
         verify(userService).findByEmail("test@example.com");
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        verify(passwordEncoder).matches("password123", "encodedPassword");
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -280,7 +295,7 @@ public class AuthServiceTest {
         assertEquals("User not found", exception.getMessage());
 
         verify(userService).findByEmail(invalidEmail);
-        verify(authenticationManager, never()).authenticate(any());
+        verify(passwordEncoder, never()).matches(any(), any());
 
     }
 
@@ -288,37 +303,69 @@ public class AuthServiceTest {
     void sendPasswordResetTokenEmail_ValidEmail_SendsResetEmail() {
         String email = "user@example.com";
         String otp = "123456";
-        Instant tokenExpiration = Instant.now().plus(15, ChronoUnit.MINUTES);
 
         User user = testUser.toBuilder()
                 .email(email)
                 .firstName("John")
                 .build();
 
-        User updatedUser = user.toBuilder()
-                .pwdResetToken(otp)
-                .tokenExpiration(tokenExpiration)
-                .build();
-
         when(userService.findByEmail(email)).thenReturn(user);
+        when(emailThrottleService.tryAcquire(email, EmailType.PASSWORD_RESET)).thenReturn(true);
         when(tokenGenerator.generateDigitOtp()).thenReturn(otp);
-        when(userRepo.save(any(User.class))).thenReturn(updatedUser);
-        doNothing().when(emailService).sendPasswordResetEmail(
-                eq(email),
-                eq("John"),
-                eq(otp),
-                any(Instant.class));
+        when(userRepo.updatePasswordResetToken(eq(user.getId()), eq(otp), any(Instant.class))).thenReturn(1);
 
         authService.sendPasswordResetTokenEmail(email);
 
         verify(userService).findByEmail(email);
         verify(tokenGenerator).generateDigitOtp();
-        verify(userRepo).save(any(User.class));
-        verify(emailService).sendPasswordResetEmail(
-                eq(email),
-                eq("John"),
-                eq(otp),
-                any(Instant.class));
+        verify(eventPublisher).publishEvent(argThat((PasswordResetEmailEvent event) ->
+                event.email().equals(email)
+                && event.firstName().equals("John") && event.resetToken().equals(otp)));
+    }
+
+    @Test
+    void sendPasswordResetTokenEmail_StaleCachedUser_OnlyWritesTheToken() {
+        // demoted and revoked in the database, still an admin in the cache
+        User cached = testUser.toBuilder().email("user@example.com").role(UserRole.ADMIN).securityVersion(3)
+                .build();
+
+        when(userService.findByEmail("user@example.com")).thenReturn(cached);
+        when(emailThrottleService.tryAcquire("user@example.com", EmailType.PASSWORD_RESET)).thenReturn(true);
+        when(tokenGenerator.generateDigitOtp()).thenReturn("123456");
+        when(userRepo.updatePasswordResetToken(eq(cached.getId()), eq("123456"), any(Instant.class)))
+                .thenReturn(1);
+
+        authService.sendPasswordResetTokenEmail("user@example.com");
+
+        verify(userRepo, never()).save(any(User.class));
+    }
+
+    @Test
+    void sendPasswordResetTokenEmail_UserDeletedBehindCache_ReleasesThrottle() {
+        when(userService.findByEmail("user@example.com")).thenReturn(testUser.toBuilder()
+                .email("user@example.com").build());
+        when(emailThrottleService.tryAcquire("user@example.com", EmailType.PASSWORD_RESET)).thenReturn(true);
+        when(tokenGenerator.generateDigitOtp()).thenReturn("123456");
+        when(userRepo.updatePasswordResetToken(any(), anyString(), any(Instant.class))).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> authService.sendPasswordResetTokenEmail("user@example.com"));
+
+        verify(eventPublisher, never()).publishEvent(any(PasswordResetEmailEvent.class));
+        verify(emailThrottleService).release("user@example.com", EmailType.PASSWORD_RESET);
+    }
+
+    @Test
+    void sendPasswordResetTokenEmail_RepeatedWithinWindow_KeepsCodeAlreadySent() {
+        when(userService.findByEmail("user@example.com")).thenReturn(testUser.toBuilder()
+                .email("user@example.com").build());
+        when(emailThrottleService.tryAcquire("user@example.com", EmailType.PASSWORD_RESET)).thenReturn(false);
+
+        authService.sendPasswordResetTokenEmail("user@example.com");
+
+        verify(tokenGenerator, never()).generateDigitOtp();
+        verify(userRepo, never()).save(any(User.class));
+        verify(eventPublisher, never()).publishEvent(any(PasswordResetEmailEvent.class));
     }
 
     @Test
@@ -333,7 +380,7 @@ public class AuthServiceTest {
 
         verify(userService).findByEmail(email);
         verify(tokenGenerator, never()).generateDigitOtp();
-        verify(emailService, never()).sendPasswordResetEmail(any(), any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any(PasswordResetEmailEvent.class));
     }
 
     @Test
@@ -350,9 +397,11 @@ public class AuthServiceTest {
                 .accessToken(newAccessToken)
                 .build();
 
-        when(jwtService.extractUsername(refreshToken)).thenReturn(email);
+        JwtClaims claims = JwtClaims.builder().subject(email).build();
+
+        when(jwtService.verify(refreshToken)).thenReturn(claims);
         when(userService.findByEmail(email)).thenReturn(user);
-        when(jwtService.isTokenValid(refreshToken, user)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, user)).thenReturn(true);
         when(jwtService.generateToken(user)).thenReturn(newAccessToken);
 
         // Act
@@ -362,9 +411,9 @@ public class AuthServiceTest {
         assertNotNull(result);
         assertEquals(expectedResponse, result);
 
-        verify(jwtService).extractUsername(refreshToken);
+        verify(jwtService).verify(refreshToken);
         verify(userService).findByEmail(email);
-        verify(jwtService).isTokenValid(refreshToken, user);
+        verify(jwtService).isTokenValid(claims, user);
         verify(jwtService).generateToken(user);
     }
 
@@ -377,9 +426,11 @@ public class AuthServiceTest {
                 .email(email)
                 .build();
 
-        when(jwtService.extractUsername(expiredRefreshToken)).thenReturn(email);
+        JwtClaims claims = JwtClaims.builder().subject(email).build();
+
+        when(jwtService.verify(expiredRefreshToken)).thenReturn(claims);
         when(userService.findByEmail(email)).thenReturn(user);
-        when(jwtService.isTokenValid(expiredRefreshToken, user)).thenReturn(false);
+        when(jwtService.isTokenValid(claims, user)).thenReturn(false);
 
         // Actions & Assertions
         AuthorizationException exception = assertThrows(AuthorizationException.class,
@@ -387,9 +438,9 @@ public class AuthServiceTest {
 
         assertEquals(ErrorCode.TOKEN_EXPIRED, exception.getErrorCode());
 
-        verify(jwtService).extractUsername(expiredRefreshToken);
+        verify(jwtService).verify(expiredRefreshToken);
         verify(userService).findByEmail(email);
-        verify(jwtService).isTokenValid(expiredRefreshToken, user);
+        verify(jwtService).isTokenValid(claims, user);
         verify(jwtService, never()).generateToken(any());
     }
 
@@ -0,0 +1,119 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import dev.kingscode.ecommerce_api.config.AsyncExecutorProperties.Family;
+import dev.kingscode.ecommerce_api.config.AsyncExecutorProperties.RejectionPolicy;
+import dev.kingscode.ecommerce_api.config.AsyncExecutorProperties.ThreadType;
+import dev.kingscode.ecommerce_api.service.async.BoundedAsyncExecutor;
+import dev.kingscode.ecommerce_api.service.async.ContextPropagatingTaskDecorator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BoundedAsyncExecutorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedAsyncExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void execute_Full_AbortRejectsAndCountsTask() throws Exception {
+        executor = executor(ThreadType.VIRTUAL, RejectionPolicy.ABORT);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // one running and one queued fill the executor
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(1, meterRegistry.get("async.tasks.rejected").tag("executor", "test").counter().count());
+        assertEquals(2, meterRegistry.get("async.tasks.pending").gauge().value());
+
+        release.countDown();
+    }
+
+    @Test
+    void execute_Full_CallerRunsTaskOnSubmittingThread() {
+        executor = executor(ThreadType.PLATFORM, RejectionPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), ranOn.get());
+        release.countDown();
+    }
+
+    @Test
+    void execute_PropagatesMdcAndAuthenticationAndRestoresCaller() throws Exception {
+        executor = executor(ThreadType.VIRTUAL, RejectionPolicy.ABORT);
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user@example.com", null);
+        AtomicReference<String> requestId = new AtomicReference<>();
+        AtomicReference<Authentication> seen = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        MDC.put("requestId", "abc-123");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        executor.execute(() -> {
+            requestId.set(MDC.get("requestId"));
+            seen.set(SecurityContextHolder.getContext().getAuthentication());
+            done.countDown();
+        });
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals("abc-123", requestId.get());
+        assertSame(authentication, seen.get());
+
+        // a task run by the caller leaves the caller's own context in place
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+        new ContextPropagatingTaskDecorator().decorate(() -> {
+        }).run();
+        assertNull(MDC.get("requestId"));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private BoundedAsyncExecutor executor(ThreadType threads, RejectionPolicy rejection) {
+        Family family = new Family();
+        family.setThreads(threads);
+        family.setConcurrency(1);
+        family.setQueueCapacity(1);
+        family.setRejection(rejection);
+
+        return new BoundedAsyncExecutor("test", family, new ContextPropagatingTaskDecorator(), Duration.ofSeconds(1),
+                meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
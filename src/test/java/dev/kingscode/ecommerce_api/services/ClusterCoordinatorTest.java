@@ -0,0 +1,147 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import dev.kingscode.ecommerce_api.config.ClusterProperties;
+import dev.kingscode.ecommerce_api.service.cluster.ClusterCoordinator;
+import dev.kingscode.ecommerce_api.service.cluster.Lease;
+import dev.kingscode.ecommerce_api.service.cluster.Shard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ClusterCoordinatorTest {
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ClusterCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setHeartbeatInterval(Duration.ofMillis(10));
+
+        meterRegistry = new SimpleMeterRegistry();
+        coordinator = new ClusterCoordinator(redisTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void runAsLeader_LeaseFree_RunsWithFencingTokenAndKeepsLeadership() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(7L);
+        List<Lease> leases = new ArrayList<>();
+
+        assertTrue(coordinator.runAsLeader("job", leases::add));
+        assertTrue(coordinator.runAsLeader("job", leases::add));
+
+        // the second run reuses the lease instead of asking Redis again
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(7, leases.get(1).fencingToken());
+        assertTrue(leases.get(1).isValid());
+        assertEquals(1, meterRegistry.get("cluster.lease.acquisitions").tag("lease", "job").counter().count());
+    }
+
+    @Test
+    void runAsLeader_HeldByAnotherNode_SkipsTask() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        assertFalse(coordinator.runAsLeader("job", lease -> {
+            throw new AssertionError("must not run");
+        }));
+    }
+
+    @Test
+    void runAsLeader_RedisUnavailable_SkipsTaskInsteadOfRunningEverywhere() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertFalse(coordinator.runAsLeader("job", lease -> {
+            throw new AssertionError("must not run");
+        }));
+    }
+
+    @Test
+    void heartbeat_LeaseTakenOver_RevokesLeaseAndCountsLoss() throws InterruptedException {
+        // acquire answers with a token, renew finds another holder, heartbeat sees this node only
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            List<String> keys = invocation.getArgument(1);
+
+            if (keys.get(0).endsWith(":members")) {
+                return List.of(coordinator.nodeId());
+            }
+            return keys.size() == 2 ? 3L : 0L;
+        });
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        List<Lease> leases = new ArrayList<>();
+        coordinator.runAsLeader("job", leases::add);
+        coordinator.start();
+
+        for (int i = 0; i < 200 && leases.get(0).isValid(); i++) {
+            Thread.sleep(10);
+        }
+        coordinator.stop();
+
+        assertFalse(leases.get(0).isValid());
+        assertEquals(1, meterRegistry.get("cluster.lease.losses").tag("lease", "job").counter().count());
+
+        // leads again with the same meters
+        coordinator.runAsLeader("job", leases::add);
+        assertEquals(2, meterRegistry.get("cluster.lease.acquisitions").tag("lease", "job").counter().count());
+        assertEquals(1, meterRegistry.find("cluster.lease.held").gauges().size());
+    }
+
+    @Test
+    void heartbeat_OtherNodeJoins_ShardsByMembershipAndLeavesOnStop() throws InterruptedException {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("other-node", coordinator.nodeId()));
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        assertEquals(Shard.ALL, coordinator.shard());
+        coordinator.start();
+
+        for (int i = 0; i < 200 && coordinator.shard().count() == 1; i++) {
+            Thread.sleep(10);
+        }
+        coordinator.stop();
+
+        // members are ordered by node id, so every node derives the same split
+        int index = coordinator.nodeId().compareTo("other-node") < 0 ? 0 : 1;
+        assertEquals(new Shard(index, 2), coordinator.shard());
+        assertEquals(2, meterRegistry.get("cluster.members").gauge().value());
+        verify(zSetOperations).remove(anyString(), eq(coordinator.nodeId()));
+    }
+
+    @Test
+    void shard_KeysSplitAcrossNodes_EachOwnedExactlyOnce() {
+        List<Shard> shards = IntStream.range(0, 3).mapToObj(index -> new Shard(index, 3)).toList();
+
+        IntStream.range(-50, 50).forEach(key -> assertEquals(1,
+                shards.stream().filter(shard -> shard.owns(key)).count()));
+    }
+}
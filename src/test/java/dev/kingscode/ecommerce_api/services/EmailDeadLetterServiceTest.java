@@ -0,0 +1,84 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.dto.email.DeadLetterFilter;
+import dev.kingscode.ecommerce_api.service.email.EmailDeadLetterService;
+import dev.kingscode.ecommerce_api.service.email.EmailQueueService;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailDeadLetterServiceTest {
+    private static final String TEMPLATE_INDEX = "email-dead-letter:template:welcome";
+    private static final DeadLetterFilter WELCOME = new DeadLetterFilter("welcome", null, null);
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOps;
+    @Mock
+    private HashOperations<String, Object, Object> hashOps;
+    @Mock
+    private EmailQueueService emailQueueService;
+
+    private EmailDeadLetterService deadLetterService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(redisTemplate.opsForHash()).thenReturn(hashOps);
+        when(hashOps.multiGet("email-dead-letter:entries", List.of("orphan"))).thenReturn(Arrays.asList((Object) null));
+
+        deadLetterService = new EmailDeadLetterService(redisTemplate, new ObjectMapper(), new EmailQueueProperties(),
+                emailQueueService);
+    }
+
+    @Test
+    void replay_OrphanInTemplateIndex_DropsItFromTheTemplateIndex() {
+        when(zSetOps.rangeByScore(eq(TEMPLATE_INDEX), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                .thenReturn(Set.of("orphan"), Set.of());
+
+        assertEquals(0, deadLetterService.replay(WELCOME));
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("email-dead-letter:entries", "email-dead-letter")), eq("orphan"), eq(TEMPLATE_INDEX));
+        verify(emailQueueService, never()).enqueueAll(anyList());
+    }
+
+    @Test
+    void purge_OrphanNeverLeavesTheIndex_StopsInsteadOfLooping() {
+        // the removal didn't take, so every range returns the same orphan
+        when(zSetOps.rangeByScore(eq(TEMPLATE_INDEX), anyDouble(), anyDouble(), anyLong(), anyLong()))
+                .thenReturn(Set.of("orphan"));
+
+        assertEquals(0, deadLetterService.purge(WELCOME));
+
+        verify(zSetOps, times(2)).rangeByScore(eq(TEMPLATE_INDEX), anyDouble(), anyDouble(), anyLong(), anyLong());
+    }
+
+}
@@ -0,0 +1,59 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.enums.EmailPriority;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
+import dev.kingscode.ecommerce_api.service.email.EmailLanes;
+
+public class EmailLanesTest {
+    private static final Map<EmailPriority, Integer> WEIGHTS = Map.of(EmailPriority.HIGH, 8, EmailPriority.NORMAL,
+            3, EmailPriority.LOW, 1);
+
+    @Test
+    void quotas_FullRound_SplitsByWeight() {
+        assertArrayEquals(new int[] { 8, 3, 1 }, new EmailLanes(WEIGHTS).quotas(12));
+    }
+
+    @Test
+    void quotas_SingleSlotClaims_FollowWeightsWithoutStarvingLowLane() {
+        EmailLanes lanes = new EmailLanes(WEIGHTS);
+        int[] total = new int[3];
+        int longestHighGap = 0;
+        int sinceHigh = 0;
+
+        for (int claim = 0; claim < 120; claim++) {
+            int[] quotas = lanes.quotas(1);
+
+            for (int lane = 0; lane < quotas.length; lane++) {
+                total[lane] += quotas[lane];
+            }
+
+            sinceHigh = quotas[0] == 1 ? 0 : sinceHigh + 1;
+            longestHighGap = Math.max(longestHighGap, sinceHigh);
+        }
+
+        assertArrayEquals(new int[] { 80, 30, 10 }, total);
+        // high priority mail never waits more than two claims behind lower lanes
+        assertTrue(longestHighGap <= 2, "gap was " + longestHighGap);
+    }
+
+    @Test
+    void priorityOf_DerivedFromEmailType() {
+        assertEquals(EmailPriority.HIGH, EmailLanes.priorityOf(message(EmailType.PASSWORD_RESET)));
+        assertEquals(EmailPriority.NORMAL, EmailLanes.priorityOf(message(EmailType.USER_REGISTRATION)));
+        assertEquals(EmailPriority.LOW, EmailLanes.priorityOf(message(EmailType.WELCOME_EMAIL)));
+        assertEquals(EmailPriority.NORMAL, EmailLanes.priorityOf(message(null)));
+    }
+
+    private static EmailQueueMessage message(EmailType type) {
+        return EmailQueueMessage.builder().to("user@example.com").emailType(type).build();
+    }
+}
@@ -0,0 +1,169 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import dev.kingscode.ecommerce_api.config.EmailOutboxProperties;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.EmailOutboxEntry;
+import dev.kingscode.ecommerce_api.repository.EmailOutboxRepository;
+import dev.kingscode.ecommerce_api.repository.JobFenceRepository;
+import dev.kingscode.ecommerce_api.service.cluster.ClusterCoordinator;
+import dev.kingscode.ecommerce_api.service.cluster.Lease;
+import dev.kingscode.ecommerce_api.service.email.EmailOutboxRelay;
+import dev.kingscode.ecommerce_api.service.email.EmailQueueService;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxRelayTest {
+    @Mock
+    private EmailOutboxRepository outboxRepo;
+    @Mock
+    private JobFenceRepository fenceRepo;
+    @Mock
+    private EmailQueueService emailQueueService;
+    @Mock
+    private ClusterCoordinator clusterCoordinator;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private EmailOutboxProperties properties;
+    private EmailOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EmailOutboxProperties();
+        properties.setBatchSize(2);
+
+        relay = new EmailOutboxRelay(outboxRepo, fenceRepo, emailQueueService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), objectMapper, properties,
+                clusterCoordinator);
+        leadRelayFor(Duration.ofMinutes(1));
+        lenient().when(fenceRepo.advance("email-outbox-relay", 1)).thenReturn(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_FullBatches_EnqueuesAndDeletesUntilDrained() {
+        List<EmailOutboxEntry> entries = IntStream.range(0, 3).mapToObj(i -> entry("user" + i + "@example.com"))
+                .toList();
+
+        when(outboxRepo.lockOldest(2)).thenReturn(entries.subList(0, 2)).thenReturn(entries.subList(2, 3));
+
+        relay.relay();
+
+        ArgumentCaptor<List<EmailQueueMessage>> enqueued = ArgumentCaptor.forClass(List.class);
+        verify(emailQueueService, times(2)).enqueueAll(enqueued.capture());
+        assertEquals(List.of("user0@example.com", "user1@example.com"),
+                enqueued.getAllValues().get(0).stream().map(EmailQueueMessage::getTo).toList());
+
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(entries.get(0).getId(), entries.get(1).getId()));
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(entries.get(2).getId()));
+    }
+
+    @Test
+    void relay_AnotherNodeLeads_SkipsOutboxScan() {
+        when(clusterCoordinator.runAsLeader(eq("email-outbox-relay"), any())).thenReturn(false);
+
+        relay.relay();
+
+        verify(outboxRepo, never()).lockOldest(anyInt());
+    }
+
+    @Test
+    void relay_LeaseLostMidRun_StopsAfterCurrentBatch() {
+        List<EmailOutboxEntry> entries = IntStream.range(0, 2).mapToObj(i -> entry("user" + i + "@example.com"))
+                .toList();
+
+        leadRelayFor(Duration.ZERO);
+        when(outboxRepo.lockOldest(2)).thenReturn(entries);
+
+        relay.relay();
+
+        verify(outboxRepo, times(1)).lockOldest(2);
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(entries.get(0).getId(), entries.get(1).getId()));
+    }
+
+    @Test
+    void relay_NewerLeaderFenced_RelaysNothing() {
+        when(fenceRepo.advance("email-outbox-relay", 1)).thenReturn(0);
+
+        relay.relay();
+
+        verify(outboxRepo, never()).lockOldest(anyInt());
+        verify(emailQueueService, never()).enqueueAll(anyList());
+    }
+
+    @Test
+    void relay_QueueUnavailable_KeepsEntries() {
+        when(outboxRepo.lockOldest(2)).thenReturn(List.of(entry("user@example.com")));
+        doThrow(new RuntimeException("Redis down")).when(emailQueueService).enqueueAll(anyList());
+
+        relay.relay();
+
+        verify(outboxRepo, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void relay_MalformedEntry_DeletedWithoutEnqueueing() {
+        EmailOutboxEntry malformed = EmailOutboxEntry.builder().id(UUID.randomUUID()).payload("{\"to\":")
+                .createdAt(Instant.now()).build();
+
+        when(outboxRepo.lockOldest(2)).thenReturn(List.of(malformed));
+
+        relay.relay();
+
+        verify(emailQueueService).enqueueAll(List.of());
+        verify(outboxRepo).deleteAllByIdInBatch(List.of(malformed.getId()));
+    }
+
+    /** This node leads the relay with a lease valid for {@code validFor} */
+    private void leadRelayFor(Duration validFor) {
+        lenient().when(clusterCoordinator.runAsLeader(eq("email-outbox-relay"), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Lease>>getArgument(1).accept(new Lease("email-outbox-relay", 1, validFor));
+            return true;
+        });
+    }
+
+    private EmailOutboxEntry entry(String to) {
+        UUID id = UUID.randomUUID();
+        EmailQueueMessage message = EmailQueueMessage.builder().id(id.toString()).to(to).subject("Verify")
+                .templateName("email-verification").variables(Map.of("name", "Jane")).retryCount(0)
+                .createdAt(Instant.now()).build();
+
+        try {
+            return EmailOutboxEntry.builder().id(id).payload(objectMapper.writeValueAsString(message))
+                    .createdAt(Instant.now()).build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
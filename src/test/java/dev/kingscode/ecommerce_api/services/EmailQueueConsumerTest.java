@@ -0,0 +1,206 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.dto.email.QueuedEmail;
+import dev.kingscode.ecommerce_api.service.email.EmailDeadLetterService;
+import dev.kingscode.ecommerce_api.service.email.EmailMetrics;
+import dev.kingscode.ecommerce_api.service.email.EmailQueueDoorbell;
+import dev.kingscode.ecommerce_api.service.email.EmailQueueConsumer;
+import dev.kingscode.ecommerce_api.service.email.EmailQueueService;
+import dev.kingscode.ecommerce_api.service.email.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class EmailQueueConsumerTest {
+    @Mock
+    private EmailQueueService emailQueueService;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private EmailDeadLetterService emailDeadLetterService;
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private EmailQueueProperties properties;
+    private EmailQueueDoorbell doorbell;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailQueueConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EmailQueueProperties();
+        properties.setConcurrency(4);
+        properties.setSendBatchSize(2);
+        properties.setIdlePollMin(Duration.ofMillis(5));
+        properties.setIdlePollMax(Duration.ofMillis(20));
+        properties.getDoorbell().setFallbackPoll(Duration.ofMillis(20));
+
+        meterRegistry = new SimpleMeterRegistry();
+        doorbell = new EmailQueueDoorbell(redisTemplate, listenerContainer, properties);
+        consumer = new EmailQueueConsumer(emailQueueService, emailService, emailDeadLetterService,
+                new EmailMetrics(meterRegistry, emailQueueService), doorbell, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (consumer.isRunning()) {
+            consumer.stop();
+        }
+    }
+
+    @Test
+    void start_QueuedBatch_SendsAndAcksAllWithoutExceedingInFlightLimit() {
+        List<QueuedEmail> batch = IntStream.range(0, 8).mapToObj(i -> queued("user" + i + "@example.com", 0))
+                .toList();
+
+        when(emailQueueService.claim(anyInt())).thenReturn(batch).thenReturn(List.of());
+
+        consumer.start();
+
+        // 8 messages over 4 workers, 2 per SMTP session
+        verify(emailService, timeout(2000).times(4)).sendHtmlEmails(argThat(messages -> messages.size() == 2));
+        batch.forEach(email -> verify(emailQueueService, timeout(2000)).ack(email));
+        verify(emailQueueService, never()).claim(intThat(count -> count > 8));
+    }
+
+    @Test
+    void start_OneMessageOfBatchFails_AcksTheOthersAndRetriesOnlyThatOne() {
+        QueuedEmail sent = queued("sent@example.com", 0);
+        QueuedEmail failing = queued("fail@example.com", 0);
+        properties.setConcurrency(1);
+
+        when(emailQueueService.claim(anyInt())).thenReturn(List.of(sent, failing)).thenReturn(List.of());
+        when(emailService.sendHtmlEmails(anyList())).thenReturn(Map.of(1, new RuntimeException("Mailbox full")));
+
+        consumer.start();
+
+        verify(emailQueueService, timeout(2000)).ack(sent);
+        verify(emailQueueService, timeout(2000)).requeue(eq(failing),
+                argThat(message -> message.getRetryCount() == 1), argThat(delay -> true));
+        verify(emailQueueService, never()).ack(failing);
+
+        consumer.stop();
+        assertEquals(1, count("email.sent"));
+        assertEquals(1, count("email.retries"));
+        assertEquals(1, meterRegistry.get("email.delivery.latency").tag("type", "USER_REGISTRATION").timer().count());
+    }
+
+    @Test
+    void start_SendFails_RequeuesWithIncrementedRetryCountInsteadOfAck() {
+        QueuedEmail failing = queued("fail@example.com", 0);
+
+        when(emailQueueService.claim(anyInt())).thenReturn(List.of(failing)).thenReturn(List.of());
+        when(emailService.sendHtmlEmails(anyList())).thenThrow(new RuntimeException("SMTP down"));
+
+        consumer.start();
+
+        verify(emailQueueService, timeout(2000)).requeue(eq(failing),
+                argThat(message -> message.getRetryCount() == 1),
+                argThat(delay -> delay.compareTo(Duration.ofSeconds(30)) >= 0
+                        && delay.compareTo(Duration.ofSeconds(60)) <= 0));
+        verify(emailQueueService, never()).ack(failing);
+    }
+
+    @Test
+    void start_LaterAttemptFails_BacksOffExponentiallyUpToMaxDelay() {
+        properties.setRetryMaxDelay(Duration.ofMinutes(3));
+        properties.setMaxRetries(10);
+        QueuedEmail second = queued("second@example.com", 1);
+        QueuedEmail late = queued("late@example.com", 6);
+
+        when(emailQueueService.claim(anyInt())).thenReturn(List.of(second, late)).thenReturn(List.of());
+        when(emailService.sendHtmlEmails(anyList())).thenThrow(new RuntimeException("SMTP down"));
+
+        consumer.start();
+
+        verify(emailQueueService, timeout(2000)).requeue(eq(second), argThat(message -> true),
+                argThat(delay -> delay.compareTo(Duration.ofSeconds(60)) >= 0
+                        && delay.compareTo(Duration.ofSeconds(120)) <= 0));
+        verify(emailQueueService, timeout(2000)).requeue(eq(late), argThat(message -> true),
+                argThat(delay -> delay.compareTo(Duration.ofSeconds(90)) >= 0
+                        && delay.compareTo(Duration.ofMinutes(3)) <= 0));
+    }
+
+    @Test
+    void start_RetriesExhausted_DeadLettersThenAcks() {
+        QueuedEmail exhausted = queued("dead@example.com", properties.getMaxRetries());
+        RuntimeException failure = new RuntimeException("SMTP down");
+
+        when(emailQueueService.claim(anyInt())).thenReturn(List.of(exhausted)).thenReturn(List.of());
+        when(emailService.sendHtmlEmails(anyList())).thenThrow(failure);
+
+        consumer.start();
+
+        verify(emailQueueService, timeout(2000)).ack(exhausted);
+        verify(emailDeadLetterService).add(exhausted.message(), failure);
+        verify(emailQueueService, never()).requeue(eq(exhausted), argThat(message -> true), argThat(delay -> true));
+
+        consumer.stop();
+        assertEquals(1, count("email.failures"));
+        assertEquals(0, count("email.retries"));
+    }
+
+    @Test
+    void start_IdleQueue_DoorbellFromAnotherNodeWakesPollerBeforeIdleDelay() {
+        properties.setIdlePollMin(Duration.ofMinutes(1));
+        QueuedEmail arrived = queued("user@example.com", 0);
+
+        when(emailQueueService.claim(anyInt())).thenReturn(List.of()).thenReturn(List.of(arrived))
+                .thenReturn(List.of());
+
+        consumer.start();
+        verify(emailQueueService, timeout(2000)).claim(anyInt());
+
+        doorbell.onMessage(null, null);
+
+        verify(emailQueueService, timeout(2000)).ack(arrived);
+    }
+
+    /** Messages without a type are attributed by their template */
+    private double count(String counter) {
+        return meterRegistry.get(counter).tag("type", "USER_REGISTRATION").counter().count();
+    }
+
+    private QueuedEmail queued(String to, int retryCount) {
+        EmailQueueMessage message = EmailQueueMessage.builder().id(UUID.randomUUID().toString()).to(to)
+                .subject("Verify").templateName("user-verification").variables(Map.of("recipientName", "John"))
+                .retryCount(retryCount).createdAt(Instant.now()).build();
+
+        return new QueuedEmail(message.getId(), message);
+    }
+
+}
@@ -0,0 +1,92 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import dev.kingscode.ecommerce_api.service.email.journal.EmailQueueJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EmailQueueJournalTest {
+    @TempDir
+    private Path dir;
+
+    @Test
+    void append_Reopened_RecoversUndrainedRecordsInOrder() {
+        Path path = dir.resolve("queue.journal");
+
+        try (EmailQueueJournal journal = open(path, 4096)) {
+            journal.append(bytes("first"));
+            journal.append(bytes("second"));
+            journal.append(bytes("third"));
+            journal.remove(1);
+        }
+
+        try (EmailQueueJournal journal = open(path, 4096)) {
+            assertTrue(journal.hasPending());
+            assertEquals(List.of("second", "third"), strings(journal.peek(10)));
+        }
+    }
+
+    @Test
+    void remove_FullyDrained_StaleRecordsAreNotRecovered() {
+        Path path = dir.resolve("queue.journal");
+
+        try (EmailQueueJournal journal = open(path, 4096)) {
+            journal.append(bytes("old-1"));
+            journal.append(bytes("old-2"));
+            journal.remove(2);
+            assertFalse(journal.hasPending());
+
+            // rewound: overwrites only the first stale record
+            journal.append(bytes("new"));
+        }
+
+        try (EmailQueueJournal journal = open(path, 4096)) {
+            assertEquals(List.of("new"), strings(journal.peek(10)));
+        }
+    }
+
+    @Test
+    void append_Full_Rejected() {
+        try (EmailQueueJournal journal = open(dir.resolve("queue.journal"), 64)) {
+            journal.append(new byte[30]);
+
+            assertThrows(IllegalStateException.class, () -> journal.append(new byte[30]));
+            assertArrayEquals(new byte[30], journal.peek(1).get(0));
+        }
+    }
+
+    @Test
+    void append_NotSyncedInTime_ThrowsSoCallerKeepsItsCopy() {
+        // the flusher never gets to run within a zero sync timeout
+        try (EmailQueueJournal journal = new EmailQueueJournal(dir.resolve("queue.journal"), 4096,
+                Duration.ofMinutes(1), Duration.ZERO, new SimpleMeterRegistry())) {
+
+            assertThrows(IllegalStateException.class, () -> journal.append(bytes("slow")));
+        }
+    }
+
+    private static EmailQueueJournal open(Path path, int capacity) {
+        return new EmailQueueJournal(path, capacity, Duration.ofMillis(1), Duration.ofSeconds(1),
+                new SimpleMeterRegistry());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(List<byte[]> payloads) {
+        return payloads.stream().map(payload -> new String(payload, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dev.kingscode.ecommerce_api.config.EmailQueueProperties.Codec;
+import dev.kingscode.ecommerce_api.dto.email.EmailQueueMessage;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
+import dev.kingscode.ecommerce_api.service.email.codec.EmailQueueMessageSerializer;
+
+public class EmailQueueMessageSerializerTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final EmailQueueMessageSerializer binary = new EmailQueueMessageSerializer(objectMapper, Codec.BINARY,
+            1024);
+    private final EmailQueueMessageSerializer json = new EmailQueueMessageSerializer(objectMapper, Codec.JSON, 1024);
+
+    @Test
+    void serialize_Binary_RoundTripsAndIsSmallerThanJson() {
+        EmailQueueMessage message = message(Map.of("recipientName", "John", "expiryInHours", 24,
+                "links", List.of("https://example.com/a")));
+
+        byte[] encoded = binary.serialize(message);
+
+        assertEquals(message, binary.deserialize(encoded));
+        assertTrue(encoded.length < json.serialize(message).length * 0.6,
+                () -> encoded.length + " bytes vs JSON " + json.serialize(message).length);
+    }
+
+    @Test
+    void serialize_LargeVariables_AreCompressed() {
+        Map<String, Object> variables = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            variables.put("orderLine" + i, "1 x KingsCode wireless headphones, black");
+        }
+        EmailQueueMessage message = message(variables);
+
+        byte[] encoded = binary.serialize(message);
+
+        assertEquals(message, binary.deserialize(encoded));
+        assertTrue(encoded.length < 1024, () -> encoded.length + " bytes");
+    }
+
+    @Test
+    void deserialize_LegacyJsonEntry_IsStillReadByBinaryCodec() {
+        EmailQueueMessage message = message(Map.of("recipientName", "John"));
+
+        assertEquals(message, binary.deserialize(json.serialize(message)));
+    }
+
+    private static EmailQueueMessage message(Map<String, Object> variables) {
+        return EmailQueueMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .to("john@example.com")
+                .subject("Verify your email")
+                .emailType(EmailType.USER_REGISTRATION)
+                .templateName("user-verification")
+                .variables(variables)
+                .retryCount(2)
+                .createdAt(Instant.parse("2026-01-15T10:15:30.123456Z"))
+                .build();
+    }
+
+}
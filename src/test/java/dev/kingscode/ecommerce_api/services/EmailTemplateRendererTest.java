@@ -0,0 +1,110 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import dev.kingscode.ecommerce_api.service.email.EmailTemplateRenderer;
+import dev.kingscode.ecommerce_api.service.email.EmailTemplateVariablesBuilder;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailTemplateRendererTest {
+    private static final Map<String, Object> INVARIANTS = Map.of("companyName", "Kings & Co",
+            "currentYear", 2026, "supportEmail", "support@example.com");
+
+    @Mock
+    private EmailTemplateVariablesBuilder templateVariablesBuilder;
+
+    private TemplateEngine templateEngine;
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        templateEngine = spy(emailTemplateEngine());
+        renderer = new EmailTemplateRenderer(templateEngine, templateVariablesBuilder);
+
+        when(templateVariablesBuilder.invariantVariables()).thenReturn(INVARIANTS);
+    }
+
+    @Test
+    void render_CompiledTemplate_MatchesThymeleafOutputForEveryRecipient() {
+        Map<String, Object> first = verificationVariables("John", "https://example.com/verify?token=a&b=1");
+        Map<String, Object> second = verificationVariables("<Jane \"O'Neil\">", "https://example.com/verify?token=z");
+
+        renderer.render("user-verification", first);
+        String rendered = renderer.render("user-verification", second);
+
+        assertEquals(thymeleaf("user-verification", second), rendered);
+        assertTrue(rendered.contains("Kings &amp; Co"));
+    }
+
+    @Test
+    void render_AfterFirstMessage_SkipsThymeleaf() {
+        renderer.render("user-verification", verificationVariables("John", "https://example.com/a"));
+        renderer.render("user-verification", verificationVariables("Jane", "https://example.com/b"));
+        renderer.render("user-verification", verificationVariables("Jim", "https://example.com/c"));
+
+        // one full render and two probes to verify the compiled template, one to compile it
+        verify(templateEngine, times(4)).process(any(String.class), any(Context.class));
+    }
+
+    @Test
+    void render_OutputDependsOnValue_KeepsRenderingWithThymeleaf() {
+        SpringTemplateEngine stringEngine = new SpringTemplateEngine();
+        stringEngine.setTemplateResolver(new StringTemplateResolver());
+        renderer = new EmailTemplateRenderer(stringEngine, templateVariablesBuilder);
+
+        // a plain substitution for any truthy name, so the first message alone can't tell
+        String template = "<p th:if=\"${recipientName}\">Hi <span th:text=\"${recipientName}\"></span></p>";
+        renderer.render(template, Map.of("recipientName", "John"));
+
+        assertEquals("", renderer.render(template, Map.of("recipientName", "off")));
+    }
+
+    private String thymeleaf(String templateName, Map<String, Object> variables) {
+        Map<String, Object> merged = new HashMap<>(variables);
+        merged.putAll(INVARIANTS);
+
+        Context context = new Context();
+        context.setVariables(merged);
+
+        return emailTemplateEngine().process(templateName, context);
+    }
+
+    private static Map<String, Object> verificationVariables(String recipientName, String link) {
+        return Map.of("recipientName", recipientName, "verificationLink", link, "buttonText", "Verify Email",
+                "expiryInHours", "24");
+    }
+
+    static SpringTemplateEngine emailTemplateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/email/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+}
@@ -0,0 +1,94 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import dev.kingscode.ecommerce_api.config.JwtConfig;
+import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.UserRole;
+import dev.kingscode.ecommerce_api.security.JwtClaims;
+import dev.kingscode.ecommerce_api.service.JWTService;
+import io.jsonwebtoken.JwtException;
+
+public class JWTServiceTest {
+    private static final String SECRET = "2297caa892d9a4dbc3faff243ab949a30d604d6a5f0da384720d1e3128d8fefc3";
+
+    private JWTService jwtService;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+
+        jwtService = new JWTService(jwtConfig);
+
+        testUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("test@example.com")
+                .password("encodedPassword")
+                .role(UserRole.ADMIN)
+                .build();
+    }
+
+    @Test
+    void verify_ValidToken_ReturnsParsedClaims() {
+        String token = jwtService.generateToken(testUser);
+
+        JwtClaims claims = jwtService.verify(token);
+
+        assertEquals("test@example.com", claims.getSubject());
+        assertEquals(List.of("ADMIN"), claims.getRoles());
+        assertNotNull(claims.getIssuedAt());
+        assertNotNull(claims.getExpiresAt());
+        assertTrue(claims.getExpiresAt().isAfter(claims.getIssuedAt()));
+    }
+
+    @Test
+    void verify_RepeatedToken_ServedFromVerifiedCache() {
+        String token = jwtService.generateToken(testUser);
+
+        JwtClaims first = jwtService.verify(token);
+        JwtClaims second = jwtService.verify(token);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_TamperedToken_ThrowsJwtException() {
+        String token = jwtService.generateToken(testUser);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void isTokenValid_DifferentUser_ReturnsFalse() {
+        JwtClaims claims = jwtService.verify(jwtService.generateToken(testUser));
+        User otherUser = testUser.toBuilder().email("other@example.com").build();
+
+        assertTrue(jwtService.isTokenValid(claims, testUser));
+        assertFalse(jwtService.isTokenValid(claims, otherUser));
+    }
+
+    @Test
+    void isTokenValid_SecurityVersionBumped_ReturnsFalse() {
+        JwtClaims claims = jwtService.verify(jwtService.generateToken(testUser));
+        User passwordChanged = testUser.toBuilder().securityVersion(1).build();
+
+        assertEquals(testUser.getId(), claims.getUserId());
+        assertEquals(0, claims.getSecurityVersion());
+        assertFalse(jwtService.isTokenValid(claims, passwordChanged));
+    }
+
+}
@@ -0,0 +1,70 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.UserRole;
+import dev.kingscode.ecommerce_api.repository.UserRepository;
+import dev.kingscode.ecommerce_api.service.MyUserDetailsService;
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
+
+@ExtendWith(MockitoExtension.class)
+public class MyUserDetailsServiceTest {
+    @Mock
+    private UserRepository userRepo;
+    @Mock
+    private UserDetailsCache userCache;
+
+    @InjectMocks
+    private MyUserDetailsService userDetailsService;
+
+    private User cachedUser;
+
+    @BeforeEach
+    void setUp() {
+        // demoted and revoked in the database since it was cached
+        cachedUser = User.builder()
+                .id(UUID.randomUUID())
+                .email("admin@example.com")
+                .password("{bcrypt}old")
+                .role(UserRole.ADMIN)
+                .securityVersion(1)
+                .build();
+    }
+
+    @Test
+    void updatePassword_StaleCachedUser_OnlyWritesTheHash() {
+        when(userRepo.rehashPassword(cachedUser.getId(), "{bcrypt}old", "{argon2}new")).thenReturn(1);
+
+        User rehashed = (User) userDetailsService.updatePassword(cachedUser, "{argon2}new");
+
+        assertEquals("{argon2}new", rehashed.getPassword());
+        verify(userRepo, never()).save(any(User.class));
+        verify(userCache).evict(cachedUser);
+    }
+
+    @Test
+    void updatePassword_PasswordChangedMeanwhile_KeepsIt() {
+        when(userRepo.rehashPassword(cachedUser.getId(), "{bcrypt}old", "{argon2}new")).thenReturn(0);
+
+        User result = (User) userDetailsService.updatePassword(cachedUser, "{argon2}new");
+
+        assertSame(cachedUser, result);
+        verify(userCache, never()).evict(any(User.class));
+    }
+
+}
@@ -0,0 +1,87 @@
+package dev.kingscode.ecommerce_api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+import dev.kingscode.ecommerce_api.config.MailSessionPoolProperties;
+import dev.kingscode.ecommerce_api.service.email.PooledJavaMailSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+public class PooledJavaMailSenderTest {
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private MailSessionPoolProperties poolProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private PooledJavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        poolProperties = new MailSessionPoolProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        mailSender = newSender();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailSender.close();
+    }
+
+    @Test
+    void send_BatchesAndSingleSends_ReuseOneSession() {
+        mailSender.send(IntStream.range(0, 5).mapToObj(i -> message("batch" + i)).toArray(MimeMessage[]::new));
+        IntStream.range(0, 5).forEach(i -> mailSender.send(message("single" + i)));
+
+        assertEquals(10, greenMail.getReceivedMessages().length);
+        assertEquals(1, sessionsOpened());
+    }
+
+    @Test
+    void send_SessionReachedMessageLimit_RecyclesIt() {
+        mailSender.close();
+        poolProperties.setMaxMessagesPerSession(2);
+        mailSender = newSender();
+
+        mailSender.send(IntStream.range(0, 5).mapToObj(i -> message("user" + i)).toArray(MimeMessage[]::new));
+
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertEquals(3, sessionsOpened());
+    }
+
+    private PooledJavaMailSender newSender() {
+        meterRegistry.clear();
+        PooledJavaMailSender sender = new PooledJavaMailSender(poolProperties, meterRegistry);
+        sender.setHost("localhost");
+        sender.setPort(ServerSetupTest.SMTP.getPort());
+        return sender;
+    }
+
+    private double sessionsOpened() {
+        return meterRegistry.get("mail.smtp.sessions.opened").counter().count();
+    }
+
+    private MimeMessage message(String user) {
+        try {
+            MimeMessage message = mailSender.createMimeMessage();
+            message.setFrom("noreply@example.com");
+            message.setRecipients(MimeMessage.RecipientType.TO, user + "@example.com");
+            message.setSubject("Verify");
+            message.setText("Hello");
+            return message;
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -7,12 +7,16 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
@@ -23,8 +27,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import dev.kingscode.ecommerce_api.dto.FileUploadResult;
@@ -38,13 +48,18 @@ import dev.kingscode.ecommerce_api.exception.ResourceConflictException;
 import dev.kingscode.ecommerce_api.exception.ResourceNotFoundException;
 import dev.kingscode.ecommerce_api.mapper.UserMapper;
 import dev.kingscode.ecommerce_api.model.User;
+import dev.kingscode.ecommerce_api.model.enums.EmailType;
 import dev.kingscode.ecommerce_api.model.enums.UserRole;
 import dev.kingscode.ecommerce_api.repository.UserRepository;
+import dev.kingscode.ecommerce_api.service.UserSecurityVersionService;
 import dev.kingscode.ecommerce_api.service.UserService;
-import dev.kingscode.ecommerce_api.service.email.VerificationEmailService;
+import dev.kingscode.ecommerce_api.service.cache.UserDetailsCache;
+import dev.kingscode.ecommerce_api.service.email.EmailThrottleService;
+import dev.kingscode.ecommerce_api.service.email.event.UserVerificationEmailEvent;
 import dev.kingscode.ecommerce_api.service.storage.FileStorageService;
 import dev.kingscode.ecommerce_api.service.storage.FileValidationService;
 import dev.kingscode.ecommerce_api.util.TokenGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
@@ -57,11 +72,22 @@ public class UserServiceTest {
         @Mock
         private TokenGenerator tokenGenerator;
         @Mock
-        private VerificationEmailService emailService;
+        private ApplicationEventPublisher eventPublisher;
         @Mock
         private FileValidationService fileValidationService;
         @Mock
         private FileStorageService fileStorageService;
+        @Mock
+        private UserSecurityVersionService securityVersionService;
+        @Spy
+        private UserDetailsCache userCache = new UserDetailsCache(mock(RedisTemplate.class),
+                        mock(RedisMessageListenerContainer.class), new SimpleMeterRegistry(), 100,
+                        Duration.ofMinutes(1), "user-cache-invalidation");
+        @Mock
+        private EmailThrottleService emailThrottleService;
+        @Spy
+        private TransactionTemplate transactionTemplate = new TransactionTemplate(
+                        mock(PlatformTransactionManager.class));
 
         @InjectMocks
         private UserService userService;
@@ -171,50 +197,74 @@ public class UserServiceTest {
                 verify(userRepo).findByEmail(invalidEmail);
         }
 
+        @Test
+        void findByEmail_RepeatedLookup_ServedFromCache() {
+                String email = "test@example.com";
+                when(userRepo.findByEmail(email)).thenReturn(Optional.of(testUser));
+
+                userService.findByEmail(email);
+                User result = userService.findByEmail(email);
+                userService.getUserById(testUserId);
+
+                assertSame(testUser, result);
+                verify(userRepo, times(1)).findByEmail(email);
+                verify(userRepo, never()).findById(testUserId);
+        }
+
         @Test
         void createUser_NewUser_CreateSuccessful() {
                 boolean isAdmin = false;
                 String encodedPassword = "encodedPassword123";
+                Instant tokenExpiration = Instant.now().plus(24, ChronoUnit.HOURS);
                 User newUser = User.builder()
                                 .email(createUserRequestDto.getEmail())
                                 .firstName(createUserRequestDto.getFirstName())
                                 .lastName(createUserRequestDto.getLastName())
-                                .password(encodedPassword)
                                 .role(UserRole.USER)
                                 .build();
 
-                User savedUser = newUser.toBuilder().id(UUID.randomUUID()).build();
-
-                when(userRepo.existsByEmail(createUserRequestDto.getEmail())).thenReturn(false);
                 when(userMapper.toEntity(createUserRequestDto)).thenReturn(newUser);
-                when(userRepo.save(any(User.class))).thenReturn(savedUser);
+                when(passwordEncoder.encode(createUserRequestDto.getPassword())).thenReturn(encodedPassword);
+                when(userRepo.insertIfEmailAvailable(any(User.class))).thenReturn(1);
 
-                User result = userService.createUser(createUserRequestDto, isAdmin);
+                User result = userService.createUser(createUserRequestDto, isAdmin, "verify-token", tokenExpiration);
 
                 // Assertions
                 assertNotNull(result);
-                assertEquals(savedUser.getId(), result.getId());
+                assertNotNull(result.getId());
                 assertEquals(UserRole.USER, result.getRole());
+                assertEquals(encodedPassword, result.getPassword());
+                assertEquals("verify-token", result.getVerificationToken());
+                assertEquals(tokenExpiration, result.getTokenExpiration());
 
-                verify(userRepo).existsByEmail(createUserRequestDto.getEmail());
-                verify(passwordEncoder).encode(createUserRequestDto.getPassword());
-                verify(userMapper).toEntity(createUserRequestDto);
-                verify(userRepo).save(any(User.class));
+                // one insert, no existence pre-check and no follow-up save
+                verify(userRepo).insertIfEmailAvailable(result);
+                verify(userRepo, never()).existsByEmail(anyString());
+                verify(userRepo, never()).save(any(User.class));
+
+                // the verification email is written in the insert's transaction
+                verify(transactionTemplate).executeWithoutResult(any());
+                verify(eventPublisher).publishEvent(argThat((UserVerificationEmailEvent event) ->
+                                event.email().equals(createUserRequestDto.getEmail())
+                                && event.verificationToken().equals("verify-token")));
         }
 
         @Test
         void createUser_DuplicateEmail_ThrowsResourceConflictException() {
-                when(userRepo.existsByEmail(createUserRequestDto.getEmail())).thenReturn(true);
+                User newUser = User.builder().email(createUserRequestDto.getEmail()).build();
+
+                when(userMapper.toEntity(createUserRequestDto)).thenReturn(newUser);
+                when(userRepo.insertIfEmailAvailable(any(User.class))).thenReturn(0);
 
                 ResourceConflictException exception = assertThrows(ResourceConflictException.class,
-                                () -> userService.createUser(createUserRequestDto, false));
+                                () -> userService.createUser(createUserRequestDto, false, "verify-token",
+                                                Instant.now()));
 
                 assertEquals("User already exist", exception.getMessage());
                 assertEquals(ErrorCode.RESOURCE_CONFLICT, exception.getErrorCode());
 
-                verify(userRepo).existsByEmail(createUserRequestDto.getEmail());
-                verify(passwordEncoder, never()).encode(anyString());
                 verify(userRepo, never()).save(any(User.class));
+                verify(eventPublisher, never()).publishEvent(any(UserVerificationEmailEvent.class));
         }
 
         @Test
@@ -248,6 +298,7 @@ public class UserServiceTest {
                 verify(userRepo).findById(testUserId);
                 verify(userRepo).save(any(User.class));
                 verify(userMapper).toResponseDto(updatedUser);
+                verify(userCache).evict(any(User.class));
         }
 
         @Test
@@ -400,6 +451,38 @@ public class UserServiceTest {
                 verify(userRepo, never()).save(any());
         }
 
+        @Test
+        void requestVerificationEmail_RepeatedWithinWindow_DroppedWithoutNewToken() {
+                User unverifiedUser = testUser.toBuilder().emailVerified(false).verificationToken(null).build();
+
+                when(emailThrottleService.tryAcquire(unverifiedUser.getEmail(), EmailType.USER_REGISTRATION))
+                                .thenReturn(false);
+
+                User result = userService.requestVerificationEmail(unverifiedUser);
+
+                assertSame(unverifiedUser, result);
+                verify(tokenGenerator, never()).generateToken();
+                verify(userRepo, never()).save(any(User.class));
+                verify(eventPublisher, never()).publishEvent(any(UserVerificationEmailEvent.class));
+        }
+
+        @Test
+        void requestVerificationEmail_FirstRequest_RefreshesTokenAndPublishes() {
+                User unverifiedUser = testUser.toBuilder().emailVerified(false).verificationToken(null).build();
+
+                when(emailThrottleService.tryAcquire(unverifiedUser.getEmail(), EmailType.USER_REGISTRATION))
+                                .thenReturn(true);
+                when(tokenGenerator.generateToken()).thenReturn("fresh-token");
+                when(userRepo.updateVerificationToken(eq(testUserId), eq("fresh-token"), any(Instant.class)))
+                                .thenReturn(1);
+
+                User result = userService.requestVerificationEmail(unverifiedUser);
+
+                assertEquals("fresh-token", result.getVerificationToken());
+                verify(eventPublisher).publishEvent(argThat((UserVerificationEmailEvent event) ->
+                                event.verificationToken().equals("fresh-token")));
+        }
+
         @Test
         void resendUserVerificationEmail_AlreadyVerified_ThrowsAuthorizationException() {
                 String email = "verified@example.com";
@@ -416,7 +499,7 @@ public class UserServiceTest {
 
                 assertEquals(ErrorCode.EMAIL_ALREADY_VERIFIED, exception.getErrorCode());
 
-                verify(emailService, never()).sendUserVerificationEmail(any(), any(), any(), any());
+                verify(eventPublisher, never()).publishEvent(any(UserVerificationEmailEvent.class));
         }
 
         @Test
@@ -455,7 +538,8 @@ public class UserServiceTest {
                 verify(userRepo).findByPwdResetToken(token);
                 verify(passwordEncoder).matches(newPassword, userWithToken.getPassword());
                 verify(passwordEncoder).encode(newPassword);
-                verify(userRepo).save(any(User.class));
+                verify(userRepo).save(argThat(saved -> saved.getSecurityVersion() == 1));
+                verify(securityVersionService).publish(testUserId, 1);
         }
 
         @Test
@@ -508,15 +592,10 @@ public class UserServiceTest {
                                 .build();
 
                 String newToken = "new-token";
-                Instant newExpiry = Instant.now().plus(24, ChronoUnit.HOURS);
-
-                User refreshedUser = expiredUser.toBuilder()
-                                .verificationToken(newToken)
-                                .tokenExpiration(newExpiry)
-                                .build();
 
                 when(tokenGenerator.generateToken()).thenReturn(newToken);
-                when(userRepo.save(any(User.class))).thenReturn(refreshedUser);
+                when(userRepo.updateVerificationToken(eq(testUserId), eq(newToken), any(Instant.class)))
+                                .thenReturn(1);
 
                 User result = userService.refreshVerificationTokenIfExpired(expiredUser);
 
@@ -524,7 +603,37 @@ public class UserServiceTest {
                 assertEquals(newToken, result.getVerificationToken());
                 assertTrue(result.getTokenExpiration().isAfter(Instant.now()));
                 verify(tokenGenerator).generateToken();
-                verify(userRepo).save(any(User.class));
+        }
+
+        @Test
+        void refreshVerificationTokenIfExpired_StaleCachedUser_OnlyWritesTheToken() {
+                // deactivated in the database, still active in the cache
+                User cached = testUser.toBuilder()
+                                .active(true)
+                                .securityVersion(2)
+                                .verificationToken(null)
+                                .build();
+
+                when(tokenGenerator.generateToken()).thenReturn("new-token");
+                when(userRepo.updateVerificationToken(eq(testUserId), eq("new-token"), any(Instant.class)))
+                                .thenReturn(1);
+
+                userService.refreshVerificationTokenIfExpired(cached);
+
+                verify(userRepo, never()).save(any(User.class));
+                verify(userCache).evict(cached);
+        }
+
+        @Test
+        void refreshVerificationTokenIfExpired_UserDeletedBehindCache_ThrowsResourceNotFound() {
+                User cached = testUser.toBuilder().verificationToken(null).build();
+
+                when(tokenGenerator.generateToken()).thenReturn("new-token");
+                when(userRepo.updateVerificationToken(eq(testUserId), eq("new-token"), any(Instant.class)))
+                                .thenReturn(0);
+
+                assertThrows(ResourceNotFoundException.class,
+                                () -> userService.refreshVerificationTokenIfExpired(cached));
         }
 
 }